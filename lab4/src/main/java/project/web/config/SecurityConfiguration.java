@@ -9,15 +9,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import project.web.config.jwt.JwtFilter;
+import project.web.services.PasswordHashingService;
 
 /**
  * Configuration class for Spring Security.
@@ -33,18 +31,16 @@ import project.web.config.jwt.JwtFilter;
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
   private final JwtFilter jwtFilter;
+  private final PasswordHashingService passwordHashingService;
 
   /**
    * Configures the password encoder for authentication.
+   * The encoder hashes with the algorithm and cost configured for {@link PasswordHashingService}.
    * @return The configured password encoder.
    */
   @Bean(name = "pwdEncoder")
   public PasswordEncoder getPasswordEncoder() {
-    DelegatingPasswordEncoder delPasswordEncoder = (DelegatingPasswordEncoder) PasswordEncoderFactories
-        .createDelegatingPasswordEncoder();
-    BCryptPasswordEncoder bcryptPasswordEncoder = new BCryptPasswordEncoder();
-    delPasswordEncoder.setDefaultPasswordEncoderForMatches(bcryptPasswordEncoder);
-    return delPasswordEncoder;
+    return passwordHashingService.getEncoder();
   }
 
   /**
@@ -76,7 +72,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         .httpBasic().and().csrf().disable()
         .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED).and()
         .authorizeRequests()
-        .antMatchers("/auth/register", "/auth/login", "/auth/get-new-access-token", "/user/check-username-exists/**", "/user/check-email-exists/**").permitAll()
+        .antMatchers("/auth/register", "/auth/login", "/auth/get-new-access-token", "/user/check-username-exists/**", "/user/check-email-exists/**", "/.well-known/jwks.json", "/actuator/health/**").permitAll()
         .antMatchers("/user/**").hasRole("USER")
         .antMatchers("/user-role/**").hasRole("ADMIN")
         .anyRequest().authenticated()
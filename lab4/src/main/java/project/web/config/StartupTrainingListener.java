@@ -0,0 +1,35 @@
+package project.web.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shuts the application down as soon as it is ready when {@code startup.training=true}.
+ *
+ * <p>Used by the {@code appcds} Maven profile: the training run starts the application with
+ * {@code -XX:ArchiveClassesAtExit}, lets the warm-up load the request paths, and exits so the JVM writes the
+ * class data sharing archive.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "startup.training", havingValue = "true")
+public class StartupTrainingListener {
+
+  private final ApplicationContext context;
+
+  /**
+   * Exits the JVM once the application is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void exitAfterTraining() {
+    log.info("Training run finished, exiting");
+    System.exit(SpringApplication.exit(context));
+  }
+}
@@ -2,6 +2,7 @@ package project.web.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
@@ -13,9 +14,11 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
  * This class is responsible for configuring Swagger to generate API documentation for the controllers
  * located in the specified base package.
  * It utilizes the {@link springfox.documentation.spring.web.plugins.Docket} class to define the behavior of the Swagger API documentation.
+ * Swagger is not set up in the {@code prod} profile, which keeps its controller scanning out of startup.
  */
 @EnableSwagger2
 @Configuration
+@Profile("!prod")
 public class SwaggerConfig {
 
   /**
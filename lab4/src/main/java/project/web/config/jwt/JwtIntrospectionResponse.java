@@ -0,0 +1,27 @@
+package project.web.config.jwt;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Result of introspecting a single access token.
+ * Inactive tokens carry no other information.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JwtIntrospectionResponse {
+
+  public static final JwtIntrospectionResponse INACTIVE = new JwtIntrospectionResponse(false, null, null, null);
+
+  boolean active;
+
+  String subject;
+
+  List<String> roles;
+
+  /**
+   * Expiration time of the token in seconds since the epoch.
+   */
+  Long expiresAt;
+}
@@ -0,0 +1,209 @@
+package project.web.config.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * JwtKeyRing holds the asymmetric keys used to sign access tokens and publishes their public halves.
+ *
+ * <p>With the default {@code HS512} algorithm the ring is empty and access tokens keep being signed with
+ * {@code jwt.secret.access}. With {@code ES256} the keys are loaded from a PKCS12 keystore where every alias
+ * is a key id ({@code kid}). Private key entries can sign; certificate-only entries are retired keys that are
+ * still published so that tokens signed with them remain verifiable until they expire.</p>
+ *
+ * <p>Keys are rotated by adding a new entry to the keystore, waiting for the published key set to be picked up
+ * by consumers, and then switching {@code jwt.signing.active-kid} to the new alias.</p>
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+  private static final String CURVE = "secp256r1";
+  private static final int COORDINATE_LENGTH = 32;
+
+  /**
+   * Algorithm used to sign access tokens.
+   */
+  @Getter
+  private final SignatureAlgorithm algorithm;
+
+  /**
+   * Public keys of every key in the ring, by key id.
+   */
+  private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+
+  /**
+   * Key id of the key that signs new access tokens.
+   */
+  @Getter
+  private String activeKeyId;
+
+  /**
+   * Private key that signs new access tokens.
+   */
+  @Getter
+  private PrivateKey activeKey;
+
+  /**
+   * Published key set in JWK format.
+   */
+  @Getter
+  private List<Map<String, String>> jsonWebKeys = Collections.emptyList();
+
+  /**
+   * Constructs a JwtKeyRing for the configured signing algorithm.
+   *
+   * @param algorithm        Name of the algorithm used to sign access tokens, {@code HS512} or {@code ES256}.
+   * @param keystorePath     Path of the PKCS12 keystore holding the signing keys.
+   * @param keystorePassword Password of the keystore and its entries.
+   * @param activeKeyId      Alias of the key that signs new tokens; the newest key entry when empty.
+   * @param allowEphemeralKey Whether {@code ES256} without a keystore signs with a key generated at startup,
+   *                          which only suits tests: tokens do not survive a restart and every replica has
+   *                          its own key.
+   * @throws GeneralSecurityException if the keystore cannot be read or contains no usable key.
+   * @throws IllegalStateException    if {@code ES256} is used without a keystore and ephemeral keys are not allowed.
+   * @throws IOException              if the keystore file cannot be read.
+   */
+  public JwtKeyRing(
+      @Value("${jwt.signing.algorithm:HS512}") String algorithm,
+      @Value("${jwt.signing.keystore:}") String keystorePath,
+      @Value("${jwt.signing.keystore-password:}") String keystorePassword,
+      @Value("${jwt.signing.active-kid:}") String activeKeyId,
+      @Value("${jwt.signing.allow-ephemeral-key:false}") boolean allowEphemeralKey
+  ) throws GeneralSecurityException, IOException {
+    this.algorithm = SignatureAlgorithm.forName(algorithm);
+    if (this.algorithm.isHmac()) {
+      return;
+    }
+    if (this.algorithm != SignatureAlgorithm.ES256) {
+      throw new IllegalStateException(String.format("Unsupported signing algorithm '%s'", algorithm));
+    }
+
+    if (StringUtils.hasText(keystorePath)) {
+      loadKeyStore(Path.of(keystorePath), keystorePassword.toCharArray(), activeKeyId);
+    } else if (allowEphemeralKey) {
+      log.warn("No jwt.signing.keystore configured, signing access tokens with an ephemeral key");
+      generateEphemeralKey();
+    } else {
+      throw new IllegalStateException("jwt.signing.keystore is required for ES256 unless "
+          + "jwt.signing.allow-ephemeral-key is set");
+    }
+    this.jsonWebKeys = publicKeys.entrySet().stream()
+        .map(entry -> toJsonWebKey(entry.getKey(), (ECPublicKey) entry.getValue()))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Indicates whether access tokens are signed with an asymmetric key from this ring.
+   *
+   * @return True if access tokens are signed asymmetrically; false if the shared secret is used.
+   */
+  public boolean isAsymmetric() {
+    return activeKey != null;
+  }
+
+  /**
+   * Finds the public key with the given key id.
+   *
+   * @param keyId The key id from the token header.
+   * @return The public key, or an empty optional if the key is not in the ring.
+   */
+  public Optional<PublicKey> findPublicKey(String keyId) {
+    return keyId == null ? Optional.empty() : Optional.ofNullable(publicKeys.get(keyId));
+  }
+
+  private void loadKeyStore(Path path, char[] password, String requestedKeyId)
+      throws GeneralSecurityException, IOException {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream in = Files.newInputStream(path)) {
+      keyStore.load(in, password);
+    }
+
+    Date newest = null;
+    for (String alias : Collections.list(keyStore.aliases())) {
+      Certificate certificate = keyStore.getCertificate(alias);
+      if (certificate == null || !(certificate.getPublicKey() instanceof ECPublicKey)) {
+        log.warn("Skipping keystore entry '{}': not an EC key", alias);
+        continue;
+      }
+      publicKeys.put(alias, certificate.getPublicKey());
+
+      if (!keyStore.isKeyEntry(alias)) {
+        continue;
+      }
+      boolean requested = alias.equals(requestedKeyId);
+      Date created = keyStore.getCreationDate(alias);
+      if (requested || (!StringUtils.hasText(requestedKeyId) && (newest == null || created.after(newest)))) {
+        newest = created;
+        activeKeyId = alias;
+        activeKey = (PrivateKey) keyStore.getKey(alias, password);
+      }
+    }
+
+    if (activeKey == null) {
+      throw new GeneralSecurityException(StringUtils.hasText(requestedKeyId)
+          ? String.format("Signing key '%s' not found in %s", requestedKeyId, path)
+          : String.format("No signing key found in %s", path));
+    }
+    log.info("Signing access tokens with key '{}', publishing {} keys", activeKeyId, publicKeys.size());
+  }
+
+  private void generateEphemeralKey() throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec(CURVE));
+    KeyPair keyPair = generator.generateKeyPair();
+    activeKeyId = UUID.randomUUID().toString();
+    activeKey = keyPair.getPrivate();
+    publicKeys.put(activeKeyId, keyPair.getPublic());
+  }
+
+  private Map<String, String> toJsonWebKey(String keyId, ECPublicKey publicKey) {
+    Map<String, String> jwk = new LinkedHashMap<>();
+    jwk.put("kty", "EC");
+    jwk.put("crv", "P-256");
+    jwk.put("use", "sig");
+    jwk.put("alg", algorithm.getValue());
+    jwk.put("kid", keyId);
+    jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+    jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+    return Collections.unmodifiableMap(jwk);
+  }
+
+  /**
+   * Encodes a curve coordinate as a fixed-length, unsigned big-endian Base64URL value.
+   */
+  private static String encodeCoordinate(BigInteger coordinate) {
+    byte[] bytes = coordinate.toByteArray();
+    byte[] fixed = new byte[COORDINATE_LENGTH];
+    int length = Math.min(bytes.length, COORDINATE_LENGTH);
+    System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+    return Encoders.BASE64URL.encode(fixed);
+  }
+}
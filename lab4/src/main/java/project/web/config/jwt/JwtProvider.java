@@ -2,8 +2,14 @@ package project.web.config.jwt;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -13,6 +19,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.crypto.SecretKey;
@@ -40,18 +47,40 @@ public class JwtProvider {
    */
   private final SecretKey jwtRefreshSecret;
 
+  /**
+   * Asymmetric keys for signing access tokens, if enabled.
+   */
+  private final JwtKeyRing keyRing;
+
+  /**
+   * Parser for access tokens. It accepts both tokens signed with the shared secret and tokens signed with a key
+   * from the key ring, so tokens issued before a switch of the signing algorithm stay valid.
+   * Parsers are immutable and thread-safe, so one instance is shared.
+   */
+  private final JwtParser accessParser;
+
+  /**
+   * Parser bound to the refresh token key.
+   */
+  private final JwtParser refreshParser;
+
   /**
    * Constructs a JwtProvider with the specified access and refresh secret keys.
    *
    * @param jwtAccessSecret  Base64-encoded secret key for access tokens.
    * @param jwtRefreshSecret Base64-encoded secret key for refresh tokens.
+   * @param keyRing          Asymmetric keys for signing access tokens.
    */
   public JwtProvider(
       @Value("${jwt.secret.access}") String jwtAccessSecret,
-      @Value("${jwt.secret.refresh}") String jwtRefreshSecret
+      @Value("${jwt.secret.refresh}") String jwtRefreshSecret,
+      JwtKeyRing keyRing
   ) {
     this.jwtAccessSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtAccessSecret));
     this.jwtRefreshSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret));
+    this.keyRing = keyRing;
+    this.accessParser = Jwts.parserBuilder().setSigningKeyResolver(new AccessKeyResolver()).build();
+    this.refreshParser = Jwts.parserBuilder().setSigningKey(this.jwtRefreshSecret).build();
   }
 
   /**
@@ -69,12 +98,18 @@ public class JwtProvider {
         .map(userRole -> userRole.getRole().name())
         .collect(Collectors.toSet());
 
-    return Jwts.builder()
+    JwtBuilder builder = Jwts.builder()
         .setSubject(user.getUsername())
         .setExpiration(accessExpiration)
-        .signWith(jwtAccessSecret)
-        .claim("roles", roles)
-        .compact();
+        .claim("roles", roles);
+
+    if (keyRing.isAsymmetric()) {
+      builder.setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId())
+          .signWith(keyRing.getActiveKey(), keyRing.getAlgorithm());
+    } else {
+      builder.signWith(jwtAccessSecret);
+    }
+    return builder.compact();
   }
 
   /**
@@ -101,7 +136,7 @@ public class JwtProvider {
    * @return True if the access token is valid; false otherwise.
    */
   public boolean validateAccessToken(@NonNull String accessToken) {
-    return validateToken(accessToken, jwtAccessSecret);
+    return validateToken(accessToken, accessParser);
   }
 
   /**
@@ -111,15 +146,12 @@ public class JwtProvider {
    * @return True if the refresh token is valid; false otherwise.
    */
   public boolean validateRefreshToken(@NonNull String refreshToken) {
-    return validateToken(refreshToken, jwtRefreshSecret);
+    return validateToken(refreshToken, refreshParser);
   }
 
-  private boolean validateToken(@NonNull String token, @NonNull Key secret) {
+  private boolean validateToken(@NonNull String token, @NonNull JwtParser parser) {
     try {
-      Jwts.parserBuilder()
-          .setSigningKey(secret)
-          .build()
-          .parseClaimsJws(token);
+      parser.parseClaimsJws(token);
       return true;
     } catch (ExpiredJwtException e) {
       log.error("Token expired", e);
@@ -142,11 +174,27 @@ public class JwtProvider {
    * @return The claims extracted from the access token.
    */
   public Claims getAccessClaims(@NonNull String token) {
-    return getClaims(token, jwtAccessSecret);
+    return getClaims(token, accessParser);
   }
 
   public Claims getRefreshClaims(@NonNull String token) {
-    return getClaims(token, jwtRefreshSecret);
+    return getClaims(token, refreshParser);
+  }
+
+  /**
+   * Parses the given access token without logging failures.
+   * Intended for bulk verification, where invalid and expired tokens are an expected outcome.
+   *
+   * @param accessToken The access token to parse.
+   * @return The claims of the token, or an empty optional if the token is invalid or expired.
+   */
+  public Optional<Claims> findAccessClaims(@NonNull String accessToken) {
+    try {
+      return Optional.of(accessParser.parseClaimsJws(accessToken).getBody());
+    } catch (JwtException | IllegalArgumentException e) {
+      log.debug("Rejected access token: {}", e.getMessage());
+      return Optional.empty();
+    }
   }
 
   /**
@@ -155,11 +203,26 @@ public class JwtProvider {
    * @param token The refresh token from which to extract claims.
    * @return The claims extracted from the refresh token.
    */
-  private Claims getClaims(@NonNull String token, @NonNull Key secret) {
-    return Jwts.parserBuilder()
-        .setSigningKey(secret)
-        .build()
+  private Claims getClaims(@NonNull String token, @NonNull JwtParser parser) {
+    return parser
         .parseClaimsJws(token)
         .getBody();
   }
+
+  /**
+   * Resolves the verification key of an access token from its header: the shared secret for HMAC-signed
+   * tokens, or the public key named by {@code kid} for asymmetrically signed tokens.
+   */
+  private class AccessKeyResolver extends SigningKeyResolverAdapter {
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+      if (SignatureAlgorithm.forName(header.getAlgorithm()).isHmac()) {
+        return jwtAccessSecret;
+      }
+      return keyRing.findPublicKey(header.getKeyId())
+          .orElseThrow(() -> new UnsupportedJwtException(
+              String.format("Unknown signing key '%s'", header.getKeyId())));
+    }
+  }
 }
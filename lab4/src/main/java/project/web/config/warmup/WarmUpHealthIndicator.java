@@ -0,0 +1,26 @@
+package project.web.config.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator reporting the progress of the {@link WarmUpRunner}.
+ * It is out of service until the warm-up has finished and is part of the readiness group.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+  private final WarmUpRunner warmUpRunner;
+
+  @Override
+  public Health health() {
+    Health.Builder builder = warmUpRunner.isFinished() ? Health.up() : Health.outOfService();
+    return builder
+        .withDetail("iterations", warmUpRunner.getIterations())
+        .withDetail("batchLatencyMicros", warmUpRunner.getBatchLatencyMicros())
+        .build();
+  }
+}
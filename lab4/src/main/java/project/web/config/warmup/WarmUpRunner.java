@@ -0,0 +1,169 @@
+package project.web.config.warmup;
+
+import io.jsonwebtoken.Claims;
+import java.util.Set;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import project.web.config.jwt.JwtProvider;
+import project.web.config.jwt.JwtUtils;
+import project.web.entities.Role;
+import project.web.entities.User;
+import project.web.entities.UserDTO;
+import project.web.entities.UserRole;
+import project.web.repositories.UserRepository;
+import project.web.services.PasswordHashingService;
+
+/**
+ * WarmUpRunner exercises the hot request paths against synthetic data before the application accepts traffic.
+ *
+ * <p>Spring Boot marks the application ready for traffic only after all {@link ApplicationRunner}s have
+ * finished, so the readiness probe stays red until the warm-up completes. Each iteration mints and verifies an
+ * access token, maps a user with ModelMapper, runs the user lookups of {@link UserRepository} and sends a
+ * request with a bearer token through the local server, which covers the security filter chain,
+ * {@link project.web.config.jwt.JwtFilter} and Jackson. Password matching is included every
+ * {@value #PASSWORD_INTERVAL} iterations because a single match is deliberately expensive.</p>
+ *
+ * <p>The warm-up stops after the configured number of iterations, or earlier once the mean latency of
+ * consecutive batches changes by less than the configured threshold. Nothing is written to the database.</p>
+ */
+@Slf4j
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+
+  private static final int PASSWORD_INTERVAL = 50;
+  private static final String PASSWORD = "warm-up";
+
+  private final JwtProvider jwtProvider;
+  private final PasswordHashingService passwordHashingService;
+  private final UserRepository userRepository;
+  private final Environment environment;
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final RestTemplate restTemplate = new RestTemplate();
+
+  @Value("${warmup.enabled:true}")
+  private boolean enabled;
+
+  @Value("${warmup.max-iterations:5000}")
+  private int maxIterations;
+
+  @Value("${warmup.batch-size:100}")
+  private int batchSize;
+
+  @Value("${warmup.stable-threshold:0.05}")
+  private double stableThreshold;
+
+  @Value("${warmup.timeout-ms:60000}")
+  private long timeoutMillis;
+
+  @Getter
+  private volatile boolean finished;
+
+  @Getter
+  private volatile int iterations;
+
+  /**
+   * Mean latency of the last completed batch, in microseconds.
+   */
+  @Getter
+  private volatile double batchLatencyMicros;
+
+  /**
+   * Constructor for WarmUpRunner.
+   *
+   * @param jwtProvider            The provider whose token paths are warmed up.
+   * @param passwordHashingService The service whose password matching is warmed up.
+   * @param userRepository         The repository whose lookups are warmed up.
+   * @param environment            The environment holding the local server port.
+   */
+  public WarmUpRunner(JwtProvider jwtProvider, PasswordHashingService passwordHashingService,
+      UserRepository userRepository, Environment environment) {
+    this.jwtProvider = jwtProvider;
+    this.passwordHashingService = passwordHashingService;
+    this.userRepository = userRepository;
+    this.environment = environment;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      finished = true;
+      return;
+    }
+
+    long started = System.nanoTime();
+    try {
+      warmUp(started + timeoutMillis * 1_000_000);
+    } catch (RuntimeException e) {
+      log.warn("Warm-up aborted after {} iterations", iterations, e);
+    } finally {
+      finished = true;
+    }
+    log.info("Warm-up finished after {} iterations in {} ms, last batch {} us per iteration",
+        iterations, (System.nanoTime() - started) / 1_000_000, String.format("%.1f", batchLatencyMicros));
+  }
+
+  private void warmUp(long deadline) {
+    User user = syntheticUser();
+    String encodedPassword = passwordHashingService.hash(PASSWORD);
+    String port = environment.getProperty("local.server.port");
+    String url = port == null ? null : "http://localhost:" + port + "/user/check-username-exists/" + user.getUsername();
+
+    double previousBatch = Double.NaN;
+    while (iterations < maxIterations && System.nanoTime() < deadline) {
+      long batchStart = System.nanoTime();
+      for (int i = 0; i < batchSize; i++) {
+        iterate(user, encodedPassword, url);
+        iterations++;
+      }
+      batchLatencyMicros = (System.nanoTime() - batchStart) / 1_000.0 / batchSize;
+
+      if (Math.abs(batchLatencyMicros - previousBatch) < previousBatch * stableThreshold) {
+        log.info("Warm-up latency stabilized at {} us per iteration", String.format("%.1f", batchLatencyMicros));
+        return;
+      }
+      previousBatch = batchLatencyMicros;
+    }
+  }
+
+  private void iterate(User user, String encodedPassword, String url) {
+    String token = jwtProvider.generateAccessToken(user);
+    if (jwtProvider.validateAccessToken(token)) {
+      Claims claims = jwtProvider.getAccessClaims(token);
+      JwtUtils.generate(claims);
+    }
+
+    if (iterations % PASSWORD_INTERVAL == 0) {
+      passwordHashingService.matches(PASSWORD, encodedPassword);
+    }
+
+    modelMapper.map(user, UserDTO.class);
+    userRepository.existsByUsername(user.getUsername());
+    userRepository.findByUsername(user.getUsername());
+    userRepository.findByEmail(user.getEmail());
+
+    if (url != null) {
+      HttpHeaders headers = new HttpHeaders();
+      headers.setBearerAuth(token);
+      restTemplate.postForEntity(url, new HttpEntity<>(headers), String.class);
+    }
+  }
+
+  private User syntheticUser() {
+    String name = "warmup-" + UUID.randomUUID();
+    User user = new User();
+    user.setUsername(name);
+    user.setEmail(name + "@warmup.invalid");
+    user.setRoles(Set.of(new UserRole(0L, Role.ROLE_USER)));
+    return user;
+  }
+}
@@ -1,7 +1,9 @@
 package project.web.controllers;
 
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -12,6 +14,7 @@ import project.web.config.jwt.JwtRefreshTokenRequest;
 import project.web.config.jwt.JwtRequest;
 import project.web.entities.UserDTO;
 import project.web.services.AuthService;
+import project.web.services.TokenIntrospectionService;
 
 /**
  * Controller class handling authentication-related endpoints.
@@ -24,6 +27,7 @@ import project.web.services.AuthService;
 public class AuthController {
 
   private final AuthService authService;
+  private final TokenIntrospectionService tokenIntrospectionService;
 
   /**
    * Handles the user registration endpoint.
@@ -74,4 +78,25 @@ public class AuthController {
   public ResponseEntity<?> getNewRefreshToken(@RequestBody @Validated JwtRefreshTokenRequest request){
     return new ResponseEntity<>(authService.refresh(request.getRefreshToken()), HttpStatus.OK);
   }
+
+  /**
+   * Handles batch introspection of access tokens sent as a JSON array.
+   * @param accessTokens The access tokens to introspect.
+   * @return ResponseEntity with the introspection results, in the order of the submitted tokens.
+   */
+  @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> introspect(@RequestBody List<String> accessTokens) {
+    return new ResponseEntity<>(tokenIntrospectionService.introspect(accessTokens), HttpStatus.OK);
+  }
+
+  /**
+   * Handles batch introspection of access tokens sent as a length-prefixed binary body,
+   * where each token is preceded by its length as a 4-byte big-endian integer.
+   * @param body The encoded access tokens.
+   * @return ResponseEntity with the introspection results, in the order of the submitted tokens.
+   */
+  @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<?> introspectBinary(@RequestBody byte[] body) {
+    return new ResponseEntity<>(tokenIntrospectionService.introspect(body), HttpStatus.OK);
+  }
 }
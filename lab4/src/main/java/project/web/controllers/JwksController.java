@@ -0,0 +1,45 @@
+package project.web.controllers;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import project.web.config.jwt.JwtKeyRing;
+
+/**
+ * Controller class publishing the public keys that sign access tokens.
+ * Downstream services use the key set to verify access tokens locally, matching the {@code kid} header of a
+ * token to a published key.
+ */
+@Controller
+public class JwksController {
+
+  private final JwtKeyRing keyRing;
+  private final CacheControl cacheControl;
+
+  /**
+   * Constructor for JwksController.
+   *
+   * @param keyRing The key ring holding the signing keys.
+   * @param maxAge  How long clients may cache the key set, in seconds.
+   */
+  public JwksController(JwtKeyRing keyRing, @Value("${jwt.jwks.max-age:86400}") long maxAge) {
+    this.keyRing = keyRing;
+    this.cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic();
+  }
+
+  /**
+   * Returns the published key set in JWKS format.
+   *
+   * @return ResponseEntity with the key set.
+   */
+  @GetMapping("/.well-known/jwks.json")
+  public ResponseEntity<?> getKeySet() {
+    return ResponseEntity.ok()
+        .cacheControl(cacheControl)
+        .body(Map.of("keys", keyRing.getJsonWebKeys()));
+  }
+}
@@ -2,6 +2,8 @@ package project.web.controllers;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import java.security.Principal;
+import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +15,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import project.web.entities.BulkRoleRequest;
+import project.web.entities.BulkRoleResponse;
 import project.web.entities.UserRole;
 import project.web.services.UserRoleService;
 
@@ -37,12 +41,13 @@ public class UserRoleController {
    * Creates a new user role.
    *
    * @param role The user role to be created.
+   * @param principal The authenticated user creating the role.
    * @return ResponseEntity with the created user role.
    */
   @PostMapping("/save")
   @ApiOperation(value = "Create a new role")
-  public ResponseEntity<UserRole> save(@RequestBody UserRole role) {
-    service.save(role);
+  public ResponseEntity<UserRole> save(@RequestBody UserRole role, Principal principal) {
+    service.create(role, nameOf(principal));
     return ResponseEntity.ok(role);
   }
 
@@ -51,12 +56,13 @@ public class UserRoleController {
    *
    * @param id   The ID of the user role to be updated.
    * @param role The updated user role data.
+   * @param principal The authenticated user updating the role.
    * @return ResponseEntity with the updated user role.
    */
   @PutMapping("/update/{id}")
   @ApiOperation(value = "Update an existing role")
-  public ResponseEntity<UserRole> update(@PathVariable Long id, @RequestBody UserRole role) {
-    service.update(id, role);
+  public ResponseEntity<UserRole> update(@PathVariable Long id, @RequestBody UserRole role, Principal principal) {
+    service.update(id, role, nameOf(principal));
     return ResponseEntity.ok(role);
   }
 
@@ -64,12 +70,13 @@ public class UserRoleController {
    * Deletes a user role by ID.
    *
    * @param id The ID of the user role to be deleted.
+   * @param principal The authenticated user deleting the role.
    * @return ResponseEntity with a status indicating the success of the deletion.
    */
   @DeleteMapping("/delete/{id}")
   @ApiOperation(value = "Delete a role by ID")
-  public ResponseEntity<Void> deleteById(@PathVariable Long id) {
-    service.deleteById(id);
+  public ResponseEntity<Void> deleteById(@PathVariable Long id, Principal principal) {
+    service.deleteById(id, nameOf(principal));
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
 
@@ -85,4 +92,34 @@ public class UserRoleController {
     UserRole role = service.getById(id);
     return ResponseEntity.ok(role);
   }
+
+  /**
+   * Assigns a role to many users at once.
+   *
+   * @param request The role and the user ids or filter selecting the users.
+   * @param principal The authenticated user making the change.
+   * @return ResponseEntity with the number of users that received the role.
+   */
+  @PostMapping("/bulk/assign")
+  @ApiOperation(value = "Assign a role to users selected by ids or a filter")
+  public ResponseEntity<BulkRoleResponse> assign(@Valid @RequestBody BulkRoleRequest request, Principal principal) {
+    return ResponseEntity.ok(service.assignRole(request, nameOf(principal)));
+  }
+
+  /**
+   * Revokes a role from many users at once.
+   *
+   * @param request The role and the user ids or filter selecting the users.
+   * @param principal The authenticated user making the change.
+   * @return ResponseEntity with the number of users that lost the role.
+   */
+  @PostMapping("/bulk/revoke")
+  @ApiOperation(value = "Revoke a role from users selected by ids or a filter")
+  public ResponseEntity<BulkRoleResponse> revoke(@Valid @RequestBody BulkRoleRequest request, Principal principal) {
+    return ResponseEntity.ok(service.revokeRole(request, nameOf(principal)));
+  }
+
+  private static String nameOf(Principal principal) {
+    return principal == null ? null : principal.getName();
+  }
 }
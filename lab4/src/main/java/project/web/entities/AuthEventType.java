@@ -0,0 +1,16 @@
+package project.web.entities;
+
+/**
+ * Types of security events recorded in the {@code auth_events} audit table.
+ */
+public enum AuthEventType {
+  LOGIN_SUCCESS,
+  LOGIN_FAILURE,
+  REFRESH,
+  LOGOUT,
+  ROLE_CREATED,
+  ROLE_UPDATED,
+  ROLE_DELETED,
+  ROLE_ASSIGNED,
+  ROLE_REVOKED
+}
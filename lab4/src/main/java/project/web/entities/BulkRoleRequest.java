@@ -0,0 +1,22 @@
+package project.web.entities;
+
+import java.util.List;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Assigns or revokes a role for the users with the given ids, or for the users matching a filter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRoleRequest {
+  @NotNull
+  private Role role;
+
+  private List<Long> userIds;
+
+  private UserFilter filter;
+}
@@ -0,0 +1,11 @@
+package project.web.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkRoleResponse {
+  private Role role;
+  private int affectedUsers;
+}
@@ -21,7 +21,6 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @Entity
 @Table(name = "users", schema = "public")
@@ -100,9 +99,13 @@ public class User {
     return this.password;
   }
 
+  /**
+   * Sets the stored password hash. Raw passwords must be hashed with
+   * {@link project.web.services.PasswordHashingService} first.
+   * @param password The encoded password.
+   */
   public void setPassword(String password) {
-    BCryptPasswordEncoder bcryptPasswordEncoder = new BCryptPasswordEncoder();
-    this.password = bcryptPasswordEncoder.encode(password);
+    this.password = password;
   }
 
 }
@@ -0,0 +1,20 @@
+package project.web.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects users by their attributes. Fields that are not set do not restrict the selection.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserFilter {
+  private String country;
+  private String region;
+  private String city;
+  private String gender;
+  private String usernamePrefix;
+  private Role hasRole;
+}
@@ -0,0 +1,25 @@
+package project.web.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base class for expected failures of domain operations, such as wrong credentials or an existing username.
+ *
+ * <p>These exceptions describe outcomes rather than bugs, so they do not capture a stack trace and do not record
+ * suppressed exceptions. Exceptions with a fixed message are thrown as shared instances.</p>
+ */
+@Getter
+public abstract class DomainException extends RuntimeException {
+
+  private final HttpStatus status;
+
+  protected DomainException(HttpStatus status, String message) {
+    this(status, message, null);
+  }
+
+  protected DomainException(HttpStatus status, String message, Throwable cause) {
+    super(message, cause, false, false);
+    this.status = status;
+  }
+}
@@ -0,0 +1,15 @@
+package project.web.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a bulk role change selects no users, because it has neither user ids nor a filter.
+ */
+public final class InvalidBulkRoleRequestException extends DomainException {
+
+  public static final InvalidBulkRoleRequestException INSTANCE = new InvalidBulkRoleRequestException();
+
+  private InvalidBulkRoleRequestException() {
+    super(HttpStatus.BAD_REQUEST, "Bulk role change requires user ids or a filter");
+  }
+}
@@ -0,0 +1,16 @@
+package project.web.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a login fails, either because the user does not exist or because the password is wrong.
+ * Both cases are reported identically so that the response does not reveal which accounts exist.
+ */
+public final class InvalidCredentialsException extends DomainException {
+
+  public static final InvalidCredentialsException INSTANCE = new InvalidCredentialsException();
+
+  private InvalidCredentialsException() {
+    super(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+  }
+}
@@ -0,0 +1,15 @@
+package project.web.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a refresh token is malformed, expired, or no longer the current token of its user.
+ */
+public final class InvalidRefreshTokenException extends DomainException {
+
+  public static final InvalidRefreshTokenException INSTANCE = new InvalidRefreshTokenException();
+
+  private InvalidRefreshTokenException() {
+    super(HttpStatus.BAD_REQUEST, "Invalid refresh token");
+  }
+}
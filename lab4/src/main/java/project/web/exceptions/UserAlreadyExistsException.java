@@ -1,12 +1,14 @@
 package project.web.exceptions;
 
-public class UserAlreadyExistsException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class UserAlreadyExistsException extends DomainException {
 
   public UserAlreadyExistsException(String message) {
-    super(message);
+    super(HttpStatus.CONFLICT, message);
   }
 
   public UserAlreadyExistsException(String message, Throwable cause) {
-    super(message, cause);
+    super(HttpStatus.CONFLICT, message, cause);
   }
 }
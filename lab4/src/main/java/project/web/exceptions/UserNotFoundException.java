@@ -0,0 +1,15 @@
+package project.web.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a user looked up by username, email or ID does not exist.
+ */
+public final class UserNotFoundException extends DomainException {
+
+  public static final UserNotFoundException INSTANCE = new UserNotFoundException();
+
+  private UserNotFoundException() {
+    super(HttpStatus.UNAUTHORIZED, "User not found");
+  }
+}
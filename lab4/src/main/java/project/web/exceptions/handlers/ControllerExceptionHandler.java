@@ -1,9 +1,18 @@
 package project.web.exceptions.handlers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.JwtException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -12,7 +21,11 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.NoHandlerFoundException;
-import project.web.exceptions.UserAlreadyExistsException;
+import project.web.exceptions.DomainException;
+import project.web.exceptions.InvalidBulkRoleRequestException;
+import project.web.exceptions.InvalidCredentialsException;
+import project.web.exceptions.InvalidRefreshTokenException;
+import project.web.exceptions.UserNotFoundException;
 import project.web.exceptions.WebError;
 
 /**
@@ -29,19 +42,49 @@ import project.web.exceptions.WebError;
  * {@link java.lang.Exception}, {@link org.springframework.http.converter.HttpMessageNotReadableException},
  * {@link org.springframework.web.bind.MethodArgumentNotValidException}, {@link java.lang.IllegalStateException},
  * {@link org.springframework.web.servlet.NoHandlerFoundException}, {@link io.jsonwebtoken.JwtException},
- * and {@link project.web.exceptions.UserAlreadyExistsException}.</p>
+ * and {@link project.web.exceptions.DomainException}.</p>
  *
  * <p>For each exception, an appropriate {@link org.springframework.http.ResponseEntity} is created with a
- * {@link project.web.exceptions.WebError} containing the HTTP status code and error message.</p>
+ * {@link project.web.exceptions.WebError} containing the HTTP status code and error message. Domain exceptions
+ * thrown as shared instances are answered with a response body whose status and message are serialized once at
+ * startup; only the timestamp is serialized per response.</p>
  *
  * <p>{@code handleUsernameNotFoundException}, {@code handleBadCredentialsException}, {@code handleIllegalArgumentException},
  * {@code handleException}, {@code handleHttpMessageNotReadable}, {@code handleHttpMessageNotReadable},
  * {@code handleIllegalStateException}, {@code handleNoHandlerFoundException}, {@code handleJwtException}, and
- * {@code handleUsernameAlreadyExistsException} are exception handling methods for specific exceptions.</p>
+ * {@code handleDomainException} are exception handling methods for specific exceptions.</p>
  */
 @ControllerAdvice
 public class ControllerExceptionHandler {
 
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The serialized start of the body of each shared domain exception, up to and including the timestamp key.
+   */
+  private final Map<DomainException, byte[]> precomputedBodies = new IdentityHashMap<>();
+
+  /**
+   * Constructor for ControllerExceptionHandler.
+   *
+   * @param objectMapper The mapper used to serialize the precomputed error responses.
+   * @throws JsonProcessingException If an error response cannot be serialized.
+   */
+  public ControllerExceptionHandler(ObjectMapper objectMapper) throws JsonProcessingException {
+    this.objectMapper = objectMapper;
+    for (DomainException e : List.of(InvalidCredentialsException.INSTANCE, UserNotFoundException.INSTANCE,
+        InvalidRefreshTokenException.INSTANCE, InvalidBulkRoleRequestException.INSTANCE)) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("status", e.getStatus().value());
+      body.put("message", e.getMessage());
+      byte[] json = objectMapper.writeValueAsBytes(body);
+      byte[] key = ",\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+      byte[] prefix = Arrays.copyOf(json, json.length - 1 + key.length);
+      System.arraycopy(key, 0, prefix, json.length - 1, key.length);
+      precomputedBodies.put(e, prefix);
+    }
+  }
+
   /**
    * Handles the {@link org.springframework.security.core.userdetails.UsernameNotFoundException}.
    *
@@ -156,14 +199,23 @@ public class ControllerExceptionHandler {
   }
 
   /**
-   * Handles the {@link project.web.exceptions.UserAlreadyExistsException}.
+   * Handles the {@link project.web.exceptions.DomainException}.
+   * Shared instances are answered with their precomputed body, completed with the current timestamp.
    *
    * @param ex The exception to handle.
    * @return ResponseEntity with the appropriate error details.
+   * @throws JsonProcessingException If the timestamp cannot be serialized.
    */
-  @ExceptionHandler(UserAlreadyExistsException.class)
-  public ResponseEntity<?> handleUsernameAlreadyExistsException(UserAlreadyExistsException ex) {
-    return new ResponseEntity<>(new WebError(HttpStatus.CONFLICT.value(), ex.getMessage()),
-        HttpStatus.CONFLICT);
+  @ExceptionHandler(DomainException.class)
+  public ResponseEntity<?> handleDomainException(DomainException ex) throws JsonProcessingException {
+    byte[] prefix = precomputedBodies.get(ex);
+    if (prefix != null) {
+      byte[] timestamp = objectMapper.writeValueAsBytes(new Date());
+      byte[] body = Arrays.copyOf(prefix, prefix.length + timestamp.length + 1);
+      System.arraycopy(timestamp, 0, body, prefix.length, timestamp.length);
+      body[body.length - 1] = '}';
+      return ResponseEntity.status(ex.getStatus()).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    return new ResponseEntity<>(new WebError(ex.getStatus().value(), ex.getMessage()), ex.getStatus());
   }
 }
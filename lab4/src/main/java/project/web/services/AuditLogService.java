@@ -0,0 +1,325 @@
+package project.web.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import project.web.entities.AuthEventType;
+
+/**
+ * Service class for recording security events in the {@code auth_events} table without blocking requests.
+ *
+ * <p>Events are copied into a preallocated ring buffer by the request thread, which only claims a slot and
+ * writes a few fields. A single background thread drains the buffer and stores the events with JDBC batch
+ * inserts. When the buffer is full, new events are dropped or the request thread waits for free space,
+ * depending on {@code audit.overflow-policy}. An idle consumer and producers waiting for space are parked and
+ * woken when there is work or space, rather than polling.</p>
+ *
+ * <p>The metrics {@code auth.audit.lag}, {@code auth.audit.dropped} and {@code auth.audit.written} report the
+ * number of buffered events, the events lost to overflow or write failures, and the events stored.</p>
+ */
+@Slf4j
+@Service
+public class AuditLogService {
+
+  /**
+   * Behaviour of {@link #record} when the buffer is full.
+   */
+  public enum OverflowPolicy {
+    DROP,
+    BLOCK
+  }
+
+  private static final String INSERT_SQL =
+      "INSERT INTO auth_events (event_type, user_id, principal, detail, created_at) VALUES (?, ?, ?, ?, ?)";
+  private static final int MAX_TEXT_LENGTH = 255;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final OverflowPolicy overflowPolicy;
+  private final int batchSize;
+  private final Slot[] slots;
+  private final int mask;
+
+  /**
+   * Next sequence to be claimed by a producer.
+   */
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Next sequence to be stored by the consumer; every slot before it is free.
+   */
+  private volatile long tail;
+
+  /**
+   * Set while the consumer is parked or about to park, so that producers know to wake it.
+   */
+  private volatile boolean consumerIdle;
+
+  /**
+   * Producers waiting for space in {@code BLOCK} mode, woken by the consumer when it frees slots.
+   */
+  private final AtomicInteger blockedProducers = new AtomicInteger();
+  private final ReentrantLock spaceLock = new ReentrantLock();
+  private final Condition spaceFreed = spaceLock.newCondition();
+
+  private final Counter dropped;
+  private final Counter written;
+  private volatile boolean running;
+  private volatile Thread consumer;
+
+  /**
+   * Constructor for AuditLogService.
+   *
+   * @param jdbcTemplate   The template used for batch inserts.
+   * @param meterRegistry  The registry for the lag, drop and write metrics.
+   * @param enabled        Whether events are recorded at all.
+   * @param bufferSize     The number of events the buffer holds; rounded up to a power of two.
+   * @param batchSize      The maximum number of events stored per insert batch.
+   * @param overflowPolicy What to do when the buffer is full: {@code DROP} or {@code BLOCK}.
+   */
+  public AuditLogService(
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${audit.enabled:true}") boolean enabled,
+      @Value("${audit.buffer-size:8192}") int bufferSize,
+      @Value("${audit.batch-size:256}") int batchSize,
+      @Value("${audit.overflow-policy:DROP}") OverflowPolicy overflowPolicy
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.overflowPolicy = overflowPolicy;
+    this.batchSize = batchSize;
+
+    int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+    this.slots = new Slot[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new Slot();
+    }
+    this.mask = capacity - 1;
+
+    Gauge.builder("auth.audit.lag", this, AuditLogService::getLag)
+        .description("Audit events buffered but not yet stored")
+        .register(meterRegistry);
+    this.dropped = Counter.builder("auth.audit.dropped")
+        .description("Audit events lost to buffer overflow or write failures")
+        .register(meterRegistry);
+    this.written = Counter.builder("auth.audit.written")
+        .description("Audit events stored")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Start the consumer thread.
+   */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    consumer = new Thread(this::drainLoop, "auth-audit-writer");
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  /**
+   * Stop the consumer thread after it has stored the buffered events.
+   *
+   * @throws InterruptedException If interrupted while waiting for the consumer.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+      consumer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    signalSpace();
+  }
+
+  /**
+   * Record a security event.
+   * In {@code BLOCK} mode a full buffer makes the caller wait until the consumer frees a slot; events recorded
+   * while the service is stopping are dropped instead.
+   *
+   * @param type      The type of the event.
+   * @param userId    The ID of the affected user, if known.
+   * @param principal The username or email the event refers to, if any.
+   * @param detail    Additional information, if any.
+   */
+  public void record(AuthEventType type, Long userId, String principal, String detail) {
+    if (!enabled) {
+      return;
+    }
+    long sequence;
+    while (true) {
+      sequence = head.get();
+      if (sequence - tail >= slots.length) {
+        if (overflowPolicy == OverflowPolicy.DROP || !awaitSpace(sequence)) {
+          dropped.increment();
+          return;
+        }
+      } else if (head.compareAndSet(sequence, sequence + 1)) {
+        break;
+      }
+    }
+
+    Slot slot = slots[(int) sequence & mask];
+    slot.type = type;
+    slot.userId = userId;
+    slot.principal = principal;
+    slot.detail = detail;
+    slot.createdAt = System.currentTimeMillis();
+    slot.published = sequence;
+    if (consumerIdle) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * Get the number of events buffered but not yet stored.
+   *
+   * @return The number of pending events.
+   */
+  public long getLag() {
+    return head.get() - tail;
+  }
+
+  /**
+   * Wait until the slot of a sequence is free.
+   *
+   * @return false if the service stopped or the thread was interrupted while waiting
+   */
+  private boolean awaitSpace(long sequence) {
+    blockedProducers.incrementAndGet();
+    spaceLock.lock();
+    try {
+      while (sequence - tail >= slots.length) {
+        if (!running) {
+          return false;
+        }
+        spaceFreed.await();
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      spaceLock.unlock();
+      blockedProducers.decrementAndGet();
+    }
+  }
+
+  private void signalSpace() {
+    if (blockedProducers.get() > 0) {
+      spaceLock.lock();
+      try {
+        spaceFreed.signalAll();
+      } finally {
+        spaceLock.unlock();
+      }
+    }
+  }
+
+  private void drainLoop() {
+    while (running || getLag() > 0) {
+      int count = availableBatch();
+      if (count == 0) {
+        if (!running) {
+          break;
+        }
+        // Producers check the flag after publishing, so an event published after the re-check still wakes us.
+        consumerIdle = true;
+        if (availableBatch() == 0 && running) {
+          LockSupport.park(this);
+        }
+        consumerIdle = false;
+        continue;
+      }
+      store(tail, count);
+      signalSpace();
+    }
+  }
+
+  /**
+   * Count the consecutive published events starting at the tail, up to the batch size.
+   */
+  private int availableBatch() {
+    long start = tail;
+    int count = 0;
+    while (count < batchSize && slots[(int) (start + count) & mask].published == start + count) {
+      count++;
+    }
+    return count;
+  }
+
+  private void store(long start, int count) {
+    try {
+      jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+          Slot slot = slots[(int) (start + i) & mask];
+          ps.setString(1, slot.type.name());
+          if (slot.userId == null) {
+            ps.setNull(2, Types.BIGINT);
+          } else {
+            ps.setLong(2, slot.userId);
+          }
+          ps.setString(3, truncate(slot.principal));
+          ps.setString(4, truncate(slot.detail));
+          ps.setTimestamp(5, new Timestamp(slot.createdAt));
+        }
+
+        @Override
+        public int getBatchSize() {
+          return count;
+        }
+      });
+      written.increment(count);
+    } catch (RuntimeException e) {
+      dropped.increment(count);
+      log.warn("Failed to store {} audit events", count, e);
+    }
+
+    for (int i = 0; i < count; i++) {
+      Slot slot = slots[(int) (start + i) & mask];
+      slot.principal = null;
+      slot.detail = null;
+    }
+    tail = start + count;
+  }
+
+  private static String truncate(String value) {
+    return value == null || value.length() <= MAX_TEXT_LENGTH ? value : value.substring(0, MAX_TEXT_LENGTH);
+  }
+
+  /**
+   * A reusable buffer entry. {@code published} holds the sequence of the event currently stored in the slot and
+   * is written last, so a consumer that sees the expected sequence also sees the other fields.
+   */
+  private static final class Slot {
+    private AuthEventType type;
+    private Long userId;
+    private String principal;
+    private String detail;
+    private long createdAt;
+    private volatile long published = -1;
+  }
+}
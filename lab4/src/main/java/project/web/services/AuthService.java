@@ -1,24 +1,34 @@
 package project.web.services;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import project.web.config.jwt.JwtProvider;
 import project.web.config.jwt.JwtRequest;
 import project.web.config.jwt.JwtResponse;
+import project.web.entities.AuthEventType;
 import project.web.entities.LogoutResponse;
 import project.web.entities.RefreshToken;
 import project.web.entities.User;
 import project.web.entities.UserDTO;
+import project.web.exceptions.InvalidCredentialsException;
+import project.web.exceptions.InvalidRefreshTokenException;
+import project.web.exceptions.UserNotFoundException;
 import project.web.repositories.RefreshTokenRepository;
+import project.web.services.CacheInvalidationService.Region;
 
 /**
  * Service class for handling authentication-related operations.
@@ -28,10 +38,36 @@ import project.web.repositories.RefreshTokenRepository;
 @Transactional
 public class AuthService {
 
-  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingService passwordHashingService;
   private final RefreshTokenRepository refreshTokenRepository;
   private final UserService userService;
   private final JwtProvider jwtProvider;
+  private final AuditLogService auditLogService;
+  private final CacheInvalidationService cacheInvalidationService;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * The latest refresh token rotation per user id, used to coalesce concurrent refreshes of the same token.
+   */
+  private final ConcurrentMap<Long, Rotation> rotations = new ConcurrentHashMap<>();
+
+  /**
+   * How long, in milliseconds, a rotated refresh token keeps resolving to the pair that replaced it.
+   */
+  @Value("${jwt.refresh.reuse-window-ms:5000}")
+  private long reuseWindowMillis;
+
+  /**
+   * Number of remembered rotations above which expired ones are purged.
+   */
+  @Value("${jwt.refresh.max-tracked-rotations:10000}")
+  private int maxTrackedRotations;
+
+  /**
+   * How long, in milliseconds, a coalesced refresh waits for the rotation it joined.
+   */
+  @Value("${jwt.refresh.await-timeout-ms:2000}")
+  private long awaitTimeoutMillis;
 
   /**
    * Save a new user and perform login, returning the JWT response.
@@ -54,22 +90,36 @@ public class AuthService {
     validateRefreshToken(refreshToken);
     User user = getUserFromRefreshToken(refreshToken);
     refreshTokenRepository.deleteByUserId(user.getId());
+    rotations.remove(user.getId());
+    auditLogService.record(AuthEventType.LOGOUT, user.getId(), user.getUsername(), null);
+    cacheInvalidationService.invalidate(Region.SESSION, user.getUsername());
     return new LogoutResponse(HttpStatus.OK.value(), "User has been logged out successfully");
   }
 
   /**
    * Perform login with the provided authentication request and return the JWT response.
+   * A password hash produced with an outdated algorithm or cost is replaced after a successful match.
    *
    * @param authRequest The authentication request containing username/email and password.
    * @return The JWT response after successful login.
-   * @throws UsernameNotFoundException If the username or email is not found.
-   * @throws BadCredentialsException If the provided password is incorrect.
+   * @throws InvalidCredentialsException If the username or email is not found or the password is incorrect.
    */
-  public JwtResponse login(@NonNull JwtRequest authRequest) throws UsernameNotFoundException, BadCredentialsException{
-    User user = userService.getByUsernameOrEmail(authRequest.getUsernameOrEmail());
+  public JwtResponse login(@NonNull JwtRequest authRequest) throws InvalidCredentialsException {
+    Optional<User> found = userService.findByUsernameOrEmail(authRequest.getUsernameOrEmail());
+    if (found.isEmpty()) {
+      passwordHashingService.matchNone(authRequest.getPassword());
+      auditLogService.record(AuthEventType.LOGIN_FAILURE, null, authRequest.getUsernameOrEmail(), "unknown user");
+      throw InvalidCredentialsException.INSTANCE;
+    }
+    User user = found.get();
 
-    if (!passwordEncoder.matches(authRequest.getPassword(), user.getPassword())) {
-      throw new BadCredentialsException(String.format("Invalid user password - '%s'", authRequest.getPassword()));
+    if (!passwordHashingService.matches(authRequest.getPassword(), user.getPassword())) {
+      auditLogService.record(AuthEventType.LOGIN_FAILURE, user.getId(), authRequest.getUsernameOrEmail(),
+          "bad password");
+      throw InvalidCredentialsException.INSTANCE;
+    }
+    if (passwordHashingService.needsUpgrade(user.getPassword())) {
+      userService.updatePassword(user, passwordHashingService.hash(authRequest.getPassword()));
     }
     var accessToken = jwtProvider.generateAccessToken(user);
     var refreshToken = jwtProvider.generateRefreshToken(user);
@@ -83,6 +133,7 @@ public class AuthService {
           RefreshToken.builder().userId(user.getId()).token(refreshToken).build());
     }
 
+    auditLogService.record(AuthEventType.LOGIN_SUCCESS, user.getId(), authRequest.getUsernameOrEmail(), null);
     return new JwtResponse(accessToken, refreshToken);
   }
 
@@ -91,10 +142,11 @@ public class AuthService {
    *
    * @param refreshToken The refresh token to use.
    * @return The JWT response with a new access token.
-   * @throws JwtException If the refresh token is invalid.
-   * @throws UsernameNotFoundException If the username or email is not found.
+   * @throws InvalidRefreshTokenException If the refresh token is invalid.
+   * @throws UserNotFoundException If the username or email is not found.
    */
-  public JwtResponse getAccessToken(@NonNull String refreshToken) throws JwtException, UsernameNotFoundException {
+  public JwtResponse getAccessToken(@NonNull String refreshToken)
+      throws InvalidRefreshTokenException, UserNotFoundException {
     validateRefreshToken(refreshToken);
     User user = getUserFromRefreshToken(refreshToken);
     String accessToken = jwtProvider.generateAccessToken(user);
@@ -104,29 +156,62 @@ public class AuthService {
   /**
    * Refresh both access and refresh tokens using the provided refresh token.
    *
+   * <p>Concurrent refreshes of the same token by one user are coalesced: the first request rotates the token and
+   * the others receive the same pair once it is committed. For a short window after the rotation, the old token
+   * keeps resolving to that pair instead of being rejected. The method runs outside a transaction, so that
+   * waiting requests do not hold a database connection; only the rotation itself is transactional.</p>
+   *
    * @param refreshToken The refresh token to use.
    * @return The JWT response with new access and refresh tokens.
-   * @throws JwtException If the refresh token is invalid.
-   * @throws UsernameNotFoundException If the username or email is not found.
+   * @throws InvalidRefreshTokenException If the refresh token is invalid, or the rotation it joined failed or did
+   *     not finish within {@code jwt.refresh.await-timeout-ms}.
+   * @throws UserNotFoundException If the username or email is not found.
    */
-  public JwtResponse refresh(@NonNull String refreshToken) throws JwtException, UsernameNotFoundException {
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public JwtResponse refresh(@NonNull String refreshToken) throws InvalidRefreshTokenException, UserNotFoundException {
     validateRefreshToken(refreshToken);
     User user = getUserFromRefreshToken(refreshToken);
-    RefreshToken refreshTokenEntity = updateRefreshToken(refreshToken, user);
-    String accessToken = jwtProvider.generateAccessToken(user);
-    String newRefreshToken = refreshTokenEntity.getToken();
-    return new JwtResponse(accessToken, newRefreshToken);
+
+    Rotation rotation;
+    while (true) {
+      Rotation existing = rotations.get(user.getId());
+      if (existing != null && existing.matches(refreshToken, System.currentTimeMillis(), reuseWindowMillis)) {
+        return existing.await(awaitTimeoutMillis);
+      }
+      rotation = new Rotation(refreshToken);
+      boolean claimed = existing == null
+          ? rotations.putIfAbsent(user.getId(), rotation) == null
+          : rotations.replace(user.getId(), existing, rotation);
+      if (claimed) {
+        break;
+      }
+    }
+
+    try {
+      JwtResponse response = transactionTemplate.execute(status -> {
+        RefreshToken refreshTokenEntity = updateRefreshToken(refreshToken, user);
+        String accessToken = jwtProvider.generateAccessToken(user);
+        return new JwtResponse(accessToken, refreshTokenEntity.getToken());
+      });
+      rotation.complete(response);
+      purgeRotations();
+      auditLogService.record(AuthEventType.REFRESH, user.getId(), user.getUsername(), null);
+      return response;
+    } catch (RuntimeException e) {
+      abandon(user.getId(), rotation, e);
+      throw e;
+    }
   }
 
   /**
    * Validate the provided refresh token.
    *
    * @param refreshToken The refresh token to validate.
-   * @throws JwtException If the refresh token is invalid.
+   * @throws InvalidRefreshTokenException If the refresh token is invalid.
    */
-  private void validateRefreshToken(String refreshToken) throws JwtException {
+  private void validateRefreshToken(String refreshToken) throws InvalidRefreshTokenException {
     if (!jwtProvider.validateRefreshToken(refreshToken)) {
-      throw new JwtException("Invalid refresh token");
+      throw InvalidRefreshTokenException.INSTANCE;
     }
   }
 
@@ -136,9 +221,9 @@ public class AuthService {
    * @param refreshToken The refresh token containing user information.
    * @return The user entity associated with the refresh token.
    * @throws IllegalArgumentException If the refresh token is malformed.
-   * @throws UsernameNotFoundException If the username or email is not found.
+   * @throws UserNotFoundException If the username or email is not found.
    */
-  private User getUserFromRefreshToken(String refreshToken) throws IllegalArgumentException, UsernameNotFoundException {
+  private User getUserFromRefreshToken(String refreshToken) throws IllegalArgumentException, UserNotFoundException {
     final Claims claims = jwtProvider.getRefreshClaims(refreshToken);
     final String usernameOrEmail = claims.getSubject();
     return userService.getByUsernameOrEmail(usernameOrEmail);
@@ -150,12 +235,12 @@ public class AuthService {
    * @param refreshToken The current refresh token.
    * @param user The user entity associated with the refresh token.
    * @return The updated refresh token entity.
-   * @throws JwtException If the refresh token is invalid.
+   * @throws InvalidRefreshTokenException If the refresh token is not the current token of the user.
    */
-  private RefreshToken updateRefreshToken(String refreshToken, User user) throws JwtException {
+  private RefreshToken updateRefreshToken(String refreshToken, User user) throws InvalidRefreshTokenException {
     Optional<RefreshToken> optionalRefreshToken = refreshTokenRepository.findByUserId(user.getId());
     if (optionalRefreshToken.isEmpty() || !optionalRefreshToken.get().getToken().equals(refreshToken)) {
-      throw new JwtException("Invalid refresh token");
+      throw InvalidRefreshTokenException.INSTANCE;
     }
     RefreshToken refreshTokenEntity = optionalRefreshToken.get();
     String newRefreshToken = jwtProvider.generateRefreshToken(user);
@@ -163,4 +248,68 @@ public class AuthService {
     refreshTokenRepository.save(refreshTokenEntity);
     return refreshTokenEntity;
   }
+
+  /**
+   * Fail a rotation and forget it, so that the next request for the user rotates again.
+   *
+   * @param userId The ID of the user whose token was being rotated.
+   * @param rotation The failed rotation.
+   * @param cause The failure reported to coalesced requests.
+   */
+  private void abandon(Long userId, Rotation rotation, RuntimeException cause) {
+    rotations.remove(userId, rotation);
+    rotation.result.completeExceptionally(cause);
+  }
+
+  /**
+   * Drop rotations whose reuse window has passed once too many are remembered.
+   */
+  private void purgeRotations() {
+    if (rotations.size() > maxTrackedRotations) {
+      long now = System.currentTimeMillis();
+      rotations.values().removeIf(rotation -> rotation.isExpired(now, reuseWindowMillis));
+    }
+  }
+
+  /**
+   * A rotation of one refresh token, shared by all requests that present that token.
+   */
+  private static final class Rotation {
+    private final String oldToken;
+    private final CompletableFuture<JwtResponse> result = new CompletableFuture<>();
+    private volatile long completedAt;
+
+    private Rotation(String oldToken) {
+      this.oldToken = oldToken;
+    }
+
+    private boolean matches(String refreshToken, long now, long reuseWindowMillis) {
+      return oldToken.equals(refreshToken) && !isExpired(now, reuseWindowMillis);
+    }
+
+    private boolean isExpired(long now, long reuseWindowMillis) {
+      return result.isDone() && completedAt + reuseWindowMillis < now;
+    }
+
+    private void complete(JwtResponse response) {
+      completedAt = System.currentTimeMillis();
+      result.complete(response);
+    }
+
+    private JwtResponse await(long timeoutMillis) {
+      try {
+        return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      } catch (TimeoutException e) {
+        throw InvalidRefreshTokenException.INSTANCE;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw InvalidRefreshTokenException.INSTANCE;
+      }
+    }
+  }
 }
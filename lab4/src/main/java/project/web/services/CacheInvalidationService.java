@@ -0,0 +1,399 @@
+package project.web.services;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Service class for keeping in-process caches coherent across application replicas.
+ *
+ * <p>Invalidations are applied to the local subscribers as soon as the publishing transaction commits and are
+ * collected for a short interval before being written to the {@code cache_invalidations} change log in one
+ * batch. Every replica reads the change log and applies the invalidations published by the others. On
+ * PostgreSQL each batch is followed by a {@code NOTIFY}, so replicas read the change log immediately instead of
+ * at the next poll; on other databases, such as H2, the change log is only polled.</p>
+ */
+@Slf4j
+@Service
+public class CacheInvalidationService {
+
+  /**
+   * Kinds of cached data and the key each invalidation carries.
+   */
+  public enum Region {
+    /**
+     * User data, keyed by username.
+     */
+    USER,
+
+    /**
+     * Role data, keyed by role id.
+     */
+    ROLE,
+
+    /**
+     * Tokens and sessions of a user, keyed by username.
+     */
+    SESSION
+  }
+
+  private static final String CHANNEL = "cache_invalidation";
+  private static final String INSERT_SQL =
+      "INSERT INTO cache_invalidations (region, entity_key, node_id, created_at) VALUES (?, ?, ?, ?)";
+  private static final String SELECT_SQL =
+      "SELECT id, region, entity_key, node_id FROM cache_invalidations WHERE id > ? ORDER BY id";
+
+  /**
+   * Number of already read change log ids that are read again, so that rows committed out of id order are not
+   * missed.
+   */
+  private static final int ID_OVERLAP = 256;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final long flushIntervalMillis;
+  private final long pollIntervalMillis;
+  private final long retentionMillis;
+  private final String listenUrl;
+  private final String listenUsername;
+  private final String listenPassword;
+
+  /**
+   * Identifier of this replica in the change log.
+   */
+  @Getter
+  private final String nodeId;
+
+  private final Map<Region, List<Consumer<Set<String>>>> subscribers = new EnumMap<>(Region.class);
+  private final Set<Invalidation> pending = ConcurrentHashMap.newKeySet();
+  private final LinkedHashSet<Long> recentIds = new LinkedHashSet<>();
+
+  private volatile boolean running;
+  private Thread worker;
+  private boolean postgres;
+  private Connection listenConnection;
+  private long lastSeenId;
+  private long lastPoll;
+  private long lastPurge;
+
+  /**
+   * Constructor for CacheInvalidationService.
+   *
+   * @param dataSource          The data source holding the change log.
+   * @param enabled             Whether invalidations are exchanged with other replicas.
+   * @param nodeId              The identifier of this replica; generated when empty.
+   * @param flushIntervalMillis How long invalidations are collected before being written as one batch.
+   * @param pollIntervalMillis  How often the change log is read when no notification arrives.
+   * @param retentionMillis     How long change log rows are kept.
+   * @param listenUrl           The JDBC URL the LISTEN connection is opened with, outside the pool.
+   * @param listenUsername      The user the LISTEN connection is opened with.
+   * @param listenPassword      The password the LISTEN connection is opened with.
+   */
+  public CacheInvalidationService(
+      DataSource dataSource,
+      @Value("${cache.invalidation.enabled:true}") boolean enabled,
+      @Value("${cache.invalidation.node-id:}") String nodeId,
+      @Value("${cache.invalidation.flush-interval-ms:50}") long flushIntervalMillis,
+      @Value("${cache.invalidation.poll-interval-ms:1000}") long pollIntervalMillis,
+      @Value("${cache.invalidation.retention-ms:3600000}") long retentionMillis,
+      @Value("${spring.datasource.url:}") String listenUrl,
+      @Value("${spring.datasource.username:}") String listenUsername,
+      @Value("${spring.datasource.password:}") String listenPassword
+  ) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.enabled = enabled;
+    this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.pollIntervalMillis = pollIntervalMillis;
+    this.retentionMillis = retentionMillis;
+    this.listenUrl = listenUrl;
+    this.listenUsername = listenUsername;
+    this.listenPassword = listenPassword;
+    for (Region region : Region.values()) {
+      subscribers.put(region, new CopyOnWriteArrayList<>());
+    }
+  }
+
+  /**
+   * Start exchanging invalidations with other replicas.
+   */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+          (Connection connection) -> connection.getMetaData().getDatabaseProductName()));
+      Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+      lastSeenId = maxId == null ? 0 : maxId;
+      poll(false);
+    } catch (DataAccessException e) {
+      log.warn("Cache invalidation change log is not available, invalidations stay local", e);
+      return;
+    }
+    running = true;
+    worker = new Thread(this::run, "cache-invalidation");
+    worker.setDaemon(true);
+    worker.start();
+    log.info("Exchanging cache invalidations as node '{}' ({})", nodeId, postgres ? "notify" : "polling");
+  }
+
+  /**
+   * Stop exchanging invalidations after writing the pending ones.
+   *
+   * @throws InterruptedException If interrupted while waiting for the worker.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    if (worker != null) {
+      worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+  }
+
+  /**
+   * Register a subscriber for the invalidations of a region, published by this or any other replica.
+   *
+   * @param region     The region to subscribe to.
+   * @param subscriber The subscriber, called with the invalidated keys.
+   */
+  public void subscribe(Region region, Consumer<Set<String>> subscriber) {
+    subscribers.get(region).add(subscriber);
+  }
+
+  /**
+   * Invalidate a cached entity on every replica.
+   * Inside a transaction the invalidation is published only once the transaction commits.
+   *
+   * @param region The region of the entity.
+   * @param key    The key of the entity.
+   */
+  public void invalidate(Region region, Object key) {
+    if (key == null) {
+      return;
+    }
+    Invalidation invalidation = new Invalidation(region, key.toString());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          publish(invalidation);
+        }
+      });
+    } else {
+      publish(invalidation);
+    }
+  }
+
+  private void publish(Invalidation invalidation) {
+    dispatch(invalidation.region, Set.of(invalidation.key));
+    if (running) {
+      pending.add(invalidation);
+    }
+  }
+
+  private void dispatch(Region region, Set<String> keys) {
+    for (Consumer<Set<String>> subscriber : subscribers.get(region)) {
+      try {
+        subscriber.accept(keys);
+      } catch (RuntimeException e) {
+        log.warn("Cache invalidation subscriber for {} failed", region, e);
+      }
+    }
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        flush();
+        boolean notified = awaitNotification();
+        long now = System.currentTimeMillis();
+        if (notified || now - lastPoll >= pollIntervalMillis) {
+          lastPoll = now;
+          poll(true);
+        }
+        if (now - lastPurge >= retentionMillis / 10) {
+          lastPurge = now;
+          jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+              new Timestamp(now - retentionMillis));
+        }
+      } catch (DataAccessException e) {
+        log.warn("Failed to exchange cache invalidations", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    try {
+      flush();
+    } catch (DataAccessException e) {
+      log.warn("Failed to write pending cache invalidations", e);
+    }
+    closeListenConnection();
+  }
+
+  /**
+   * Write the pending invalidations to the change log as one batch and notify the other replicas.
+   * If the batch cannot be written or announced, it is returned to the pending invalidations and written again by
+   * the next flush; replicas may then see an invalidation twice, which is harmless.
+   */
+  private void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<Invalidation> batch = new ArrayList<>(pending.size());
+    for (Invalidation invalidation : pending) {
+      if (pending.remove(invalidation)) {
+        batch.add(invalidation);
+      }
+    }
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    try {
+      jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (PreparedStatement ps, Invalidation invalidation) -> {
+        ps.setString(1, invalidation.region.name());
+        ps.setString(2, invalidation.key.length() > 255 ? invalidation.key.substring(0, 255) : invalidation.key);
+        ps.setString(3, nodeId);
+        ps.setTimestamp(4, now);
+      });
+      if (postgres) {
+        jdbcTemplate.execute("NOTIFY " + CHANNEL);
+      }
+    } catch (RuntimeException e) {
+      pending.addAll(batch);
+      throw e;
+    }
+  }
+
+  /**
+   * Wait up to the flush interval for a notification from another replica. The LISTEN connection is held for
+   * the lifetime of the worker, so it is opened with the driver directly instead of being taken from the pool.
+   *
+   * @return True if a notification arrived, otherwise false.
+   */
+  private boolean awaitNotification() throws InterruptedException {
+    if (postgres) {
+      try {
+        if (listenConnection == null) {
+          listenConnection = DriverManager.getConnection(listenUrl, listenUsername, listenPassword);
+          try (Statement statement = listenConnection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+          }
+        }
+        var notifications = listenConnection.unwrap(PGConnection.class)
+            .getNotifications((int) flushIntervalMillis);
+        return notifications != null && notifications.length > 0;
+      } catch (SQLException e) {
+        log.warn("Lost the cache invalidation listener, falling back to polling", e);
+        closeListenConnection();
+      }
+    }
+    Thread.sleep(flushIntervalMillis);
+    return false;
+  }
+
+  /**
+   * Read the change log and apply the invalidations published by other replicas, grouped by region.
+   *
+   * @param apply Whether to apply the invalidations or only remember them as read.
+   */
+  private void poll(boolean apply) {
+    Map<Region, Set<String>> received = new EnumMap<>(Region.class);
+    jdbcTemplate.query(SELECT_SQL, rs -> {
+      long id = rs.getLong(1);
+      lastSeenId = Math.max(lastSeenId, id);
+      if (!recentIds.add(id) || nodeId.equals(rs.getString(4))) {
+        return;
+      }
+      Region region;
+      try {
+        region = Region.valueOf(rs.getString(2));
+      } catch (IllegalArgumentException e) {
+        return;
+      }
+      received.computeIfAbsent(region, r -> new HashSet<>()).add(rs.getString(3));
+    }, Math.max(0, lastSeenId - ID_OVERLAP));
+
+    while (recentIds.size() > ID_OVERLAP * 4) {
+      recentIds.remove(recentIds.iterator().next());
+    }
+    if (apply) {
+      received.forEach(this::dispatch);
+    }
+  }
+
+  private void closeListenConnection() {
+    if (listenConnection != null) {
+      try {
+        listenConnection.close();
+      } catch (SQLException e) {
+        log.debug("Failed to close the cache invalidation listener", e);
+      }
+      listenConnection = null;
+    }
+  }
+
+  /**
+   * Number of invalidations waiting to be written to the change log.
+   *
+   * @return The number of pending invalidations.
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  private static final class Invalidation {
+    private final Region region;
+    private final String key;
+
+    private Invalidation(Region region, String key) {
+      this.region = region;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Invalidation)) {
+        return false;
+      }
+      Invalidation that = (Invalidation) o;
+      return region == that.region && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * region.hashCode() + key.hashCode();
+    }
+  }
+}
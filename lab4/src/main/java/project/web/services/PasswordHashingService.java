@@ -0,0 +1,217 @@
+package project.web.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class for hashing and verifying user passwords.
+ *
+ * <p>New hashes are produced with the configured algorithm and cost and are prefixed with the id of the
+ * algorithm, for example {@code {bcrypt}}. Hashes produced with any other supported algorithm or cost, including
+ * unprefixed BCrypt hashes from before this service existed, keep verifying and are reported by
+ * {@link #needsUpgrade(String)} so they can be re-hashed on the next successful login.</p>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+  /**
+   * Supported hashing algorithms and the meaning of their cost parameter.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public enum Algorithm {
+    /**
+     * BCrypt; the cost is the base-2 logarithm of the number of rounds.
+     */
+    BCRYPT("bcrypt", 10),
+
+    /**
+     * PBKDF2 with HMAC-SHA256; the cost is the number of iterations.
+     */
+    PBKDF2("pbkdf2", 310_000),
+
+    /**
+     * Argon2id with 19 MiB of memory and one lane; the cost is the number of iterations.
+     */
+    ARGON2("argon2", 2);
+
+    private final String id;
+    private final int defaultCost;
+
+    /**
+     * Create an encoder for this algorithm.
+     *
+     * @param cost The cost parameter of the algorithm.
+     * @return The password encoder.
+     */
+    public PasswordEncoder createEncoder(int cost) {
+      switch (this) {
+        case BCRYPT:
+          return new BCryptPasswordEncoder(cost);
+        case PBKDF2:
+          Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", cost, 256);
+          pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+          return pbkdf2;
+        case ARGON2:
+          return new Argon2PasswordEncoder(16, 32, 1, 19_456, cost);
+        default:
+          throw new IllegalStateException(String.format("Unsupported algorithm '%s'", this));
+      }
+    }
+
+    /**
+     * Find an algorithm by its id.
+     *
+     * @param id The id of the algorithm, case-insensitive.
+     * @return The algorithm.
+     * @throws IllegalArgumentException If no algorithm has the given id.
+     */
+    public static Algorithm fromId(String id) throws IllegalArgumentException {
+      for (Algorithm algorithm : values()) {
+        if (algorithm.id.equalsIgnoreCase(id)) {
+          return algorithm;
+        }
+      }
+      throw new IllegalArgumentException(String.format("Unknown password hashing algorithm '%s'", id));
+    }
+  }
+
+  /**
+   * PBKDF2 does not record its iteration count in the hash, so it is recorded in the algorithm id instead.
+   */
+  private static final String PBKDF2_ID_PREFIX = Algorithm.PBKDF2.getId() + "-";
+
+  @Getter
+  private final Algorithm algorithm;
+
+  @Getter
+  private final int cost;
+
+  /**
+   * Encoder used for both hashing and verification.
+   */
+  @Getter
+  private final DelegatingPasswordEncoder encoder;
+
+  private final BCryptPasswordEncoder legacyEncoder = new BCryptPasswordEncoder();
+  private final ConcurrentMap<Integer, PasswordEncoder> pbkdf2Encoders = new ConcurrentHashMap<>();
+
+  /**
+   * Hash of a random password with the configured algorithm and cost, checked for logins of unknown users.
+   */
+  private final String dummyHash;
+
+  /**
+   * Constructor for PasswordHashingService.
+   *
+   * @param algorithm The id of the algorithm used for new hashes: {@code bcrypt}, {@code pbkdf2} or {@code argon2}.
+   * @param cost      The cost parameter of the algorithm, or 0 for the algorithm default.
+   */
+  public PasswordHashingService(
+      @Value("${password.hashing.algorithm:bcrypt}") String algorithm,
+      @Value("${password.hashing.cost:0}") int cost
+  ) {
+    this.algorithm = Algorithm.fromId(algorithm);
+    this.cost = cost > 0 ? cost : this.algorithm.getDefaultCost();
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put(Algorithm.BCRYPT.getId(), Algorithm.BCRYPT.createEncoder(
+        this.algorithm == Algorithm.BCRYPT ? this.cost : Algorithm.BCRYPT.getDefaultCost()));
+    encoders.put(Algorithm.ARGON2.getId(), Algorithm.ARGON2.createEncoder(
+        this.algorithm == Algorithm.ARGON2 ? this.cost : Algorithm.ARGON2.getDefaultCost()));
+    int pbkdf2Iterations = this.algorithm == Algorithm.PBKDF2 ? this.cost : Algorithm.PBKDF2.getDefaultCost();
+    encoders.put(PBKDF2_ID_PREFIX + pbkdf2Iterations, pbkdf2Encoder(pbkdf2Iterations));
+
+    String idForEncode = this.algorithm == Algorithm.PBKDF2 ? PBKDF2_ID_PREFIX + this.cost : this.algorithm.getId();
+    this.encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+    this.encoder.setDefaultPasswordEncoderForMatches(new FallbackEncoder());
+    this.dummyHash = this.encoder.encode(UUID.randomUUID().toString());
+    log.info("Hashing passwords with {} at cost {}", this.algorithm, this.cost);
+  }
+
+  /**
+   * Hash a raw password with the configured algorithm and cost.
+   *
+   * @param rawPassword The raw password.
+   * @return The encoded password, prefixed with the algorithm id.
+   */
+  public String hash(CharSequence rawPassword) {
+    return encoder.encode(rawPassword);
+  }
+
+  /**
+   * Check a raw password against an encoded one.
+   *
+   * @param rawPassword     The raw password.
+   * @param encodedPassword The stored encoded password.
+   * @return True if the password matches, otherwise false.
+   */
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return encoder.matches(rawPassword, encodedPassword);
+  }
+
+  /**
+   * Check a raw password against a hash that matches no password, taking as long as checking a stored hash of
+   * the configured algorithm and cost. Used for unknown users, so that the time of a failed login does not reveal
+   * whether the user exists.
+   *
+   * @param rawPassword The raw password.
+   */
+  public void matchNone(CharSequence rawPassword) {
+    encoder.matches(rawPassword, dummyHash);
+  }
+
+  /**
+   * Check whether an encoded password was produced with another algorithm or a lower cost than configured.
+   *
+   * @param encodedPassword The stored encoded password.
+   * @return True if the password should be re-hashed, otherwise false.
+   */
+  public boolean needsUpgrade(String encodedPassword) {
+    return encoder.upgradeEncoding(encodedPassword);
+  }
+
+  private PasswordEncoder pbkdf2Encoder(int iterations) {
+    return pbkdf2Encoders.computeIfAbsent(iterations, Algorithm.PBKDF2::createEncoder);
+  }
+
+  /**
+   * Verifies hashes that the delegating encoder has no delegate for: PBKDF2 hashes with another iteration
+   * count and unprefixed BCrypt hashes. New hashes are always produced with the configured algorithm and cost.
+   */
+  private class FallbackEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return hash(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      if (encodedPassword != null && encodedPassword.startsWith("{" + PBKDF2_ID_PREFIX)) {
+        int end = encodedPassword.indexOf('}');
+        try {
+          int iterations = Integer.parseInt(encodedPassword.substring(PBKDF2_ID_PREFIX.length() + 1, end));
+          return pbkdf2Encoder(iterations).matches(rawPassword, encodedPassword.substring(end + 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+          return false;
+        }
+      }
+      return legacyEncoder.matches(rawPassword, encodedPassword);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package project.web.services;
+
+import io.jsonwebtoken.Claims;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.web.config.jwt.JwtIntrospectionResponse;
+import project.web.config.jwt.JwtProvider;
+import project.web.services.CacheInvalidationService.Region;
+
+/**
+ * Service class for verifying batches of access tokens on behalf of downstream services.
+ *
+ * <p>Tokens are verified with the keys of {@link project.web.config.jwt.JwtProvider}. Large batches are verified
+ * in parallel, and tokens that were already verified are answered from an in-memory cache until they expire or
+ * their user, session or roles are invalidated through {@link CacheInvalidationService}.</p>
+ */
+@Service
+public class TokenIntrospectionService {
+
+  /**
+   * Batches smaller than this are verified on the calling thread.
+   */
+  private static final int PARALLEL_THRESHOLD = 64;
+
+  private final JwtProvider jwtProvider;
+  private final int maxBatchSize;
+  private final int cacheSize;
+  private final Map<String, JwtIntrospectionResponse> verifiedTokens = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for TokenIntrospectionService.
+   *
+   * @param jwtProvider  The provider holding the access token keys.
+   * @param maxBatchSize The maximum number of tokens accepted in one request.
+   * @param cacheSize    The maximum number of verified tokens kept in the cache.
+   * @param cacheInvalidationService The service announcing changed users, sessions and roles.
+   */
+  public TokenIntrospectionService(
+      JwtProvider jwtProvider,
+      CacheInvalidationService cacheInvalidationService,
+      @Value("${jwt.introspection.max-batch-size:1000}") int maxBatchSize,
+      @Value("${jwt.introspection.cache-size:100000}") int cacheSize
+  ) {
+    this.jwtProvider = jwtProvider;
+    this.maxBatchSize = maxBatchSize;
+    this.cacheSize = cacheSize;
+    cacheInvalidationService.subscribe(Region.USER, this::evictSubjects);
+    cacheInvalidationService.subscribe(Region.SESSION, this::evictSubjects);
+    cacheInvalidationService.subscribe(Region.ROLE, roles -> verifiedTokens.clear());
+  }
+
+  /**
+   * Introspect a batch of access tokens.
+   *
+   * @param accessTokens The access tokens to introspect.
+   * @return The introspection results, in the same order as the tokens.
+   * @throws IllegalStateException If the batch exceeds the configured maximum size.
+   */
+  public List<JwtIntrospectionResponse> introspect(@NonNull List<String> accessTokens) throws IllegalStateException {
+    if (accessTokens.size() > maxBatchSize) {
+      throw new IllegalStateException(
+          String.format("Batch of %d tokens exceeds the limit of %d", accessTokens.size(), maxBatchSize));
+    }
+    Stream<String> tokens = accessTokens.size() < PARALLEL_THRESHOLD
+        ? accessTokens.stream()
+        : accessTokens.parallelStream();
+    return tokens.map(this::introspect).collect(Collectors.toList());
+  }
+
+  /**
+   * Introspect a batch of access tokens encoded as a length-prefixed binary body.
+   * Each token is preceded by its length in bytes as a 4-byte big-endian integer.
+   *
+   * @param body The encoded batch.
+   * @return The introspection results, in the same order as the tokens.
+   * @throws IllegalStateException If the body is malformed or the batch exceeds the configured maximum size.
+   */
+  public List<JwtIntrospectionResponse> introspect(@NonNull byte[] body) throws IllegalStateException {
+    return introspect(decodeTokens(body, maxBatchSize));
+  }
+
+  /**
+   * Introspect a single access token.
+   *
+   * @param accessToken The access token to introspect.
+   * @return The introspection result.
+   */
+  public JwtIntrospectionResponse introspect(String accessToken) {
+    if (accessToken == null || accessToken.isEmpty()) {
+      return JwtIntrospectionResponse.INACTIVE;
+    }
+
+    long now = System.currentTimeMillis();
+    JwtIntrospectionResponse cached = verifiedTokens.get(accessToken);
+    if (cached != null) {
+      if (isExpired(cached, now)) {
+        verifiedTokens.remove(accessToken);
+        return JwtIntrospectionResponse.INACTIVE;
+      }
+      return cached;
+    }
+
+    Optional<Claims> claims = jwtProvider.findAccessClaims(accessToken);
+    if (claims.isEmpty()) {
+      return JwtIntrospectionResponse.INACTIVE;
+    }
+    JwtIntrospectionResponse response = toResponse(claims.get());
+    cache(accessToken, response, now);
+    return response;
+  }
+
+  /**
+   * Convert verified claims into an introspection result.
+   *
+   * @param claims The verified claims.
+   * @return The introspection result.
+   */
+  @SuppressWarnings("unchecked")
+  private JwtIntrospectionResponse toResponse(Claims claims) {
+    List<String> roles = claims.get("roles", List.class);
+    Long expiresAt = claims.getExpiration() == null ? null : claims.getExpiration().getTime() / 1000;
+    return new JwtIntrospectionResponse(true, claims.getSubject(), roles == null ? List.of() : List.copyOf(roles),
+        expiresAt);
+  }
+
+  /**
+   * Store a verified token, trimming the cache when it is full.
+   * Expired entries are dropped first; if the cache is still full it is cleared.
+   *
+   * @param accessToken The verified token.
+   * @param response    The introspection result for the token.
+   * @param now         The current time in milliseconds.
+   */
+  private void cache(String accessToken, JwtIntrospectionResponse response, long now) {
+    if (response.getExpiresAt() == null) {
+      return;
+    }
+    if (verifiedTokens.size() >= cacheSize) {
+      verifiedTokens.values().removeIf(entry -> isExpired(entry, now));
+      if (verifiedTokens.size() >= cacheSize) {
+        verifiedTokens.clear();
+      }
+    }
+    verifiedTokens.put(accessToken, response);
+  }
+
+  /**
+   * Drop the cached results of the given subjects.
+   *
+   * @param subjects The usernames whose results are dropped.
+   */
+  private void evictSubjects(Set<String> subjects) {
+    verifiedTokens.values().removeIf(entry -> subjects.contains(entry.getSubject()));
+  }
+
+  private static boolean isExpired(JwtIntrospectionResponse response, long now) {
+    return response.getExpiresAt() * 1000 <= now;
+  }
+
+  /**
+   * Decode a length-prefixed batch of tokens.
+   *
+   * Decoding stops at the first token beyond the limit, so an oversized batch is rejected before it is decoded.
+   *
+   * @param body The encoded batch.
+   * @param maxBatchSize The maximum number of tokens accepted.
+   * @return The decoded tokens.
+   * @throws IllegalStateException If the body is malformed or holds more than {@code maxBatchSize} tokens.
+   */
+  private static List<String> decodeTokens(byte[] body, int maxBatchSize) throws IllegalStateException {
+    ByteBuffer buffer = ByteBuffer.wrap(body);
+    List<String> tokens = new ArrayList<>();
+    try {
+      while (buffer.hasRemaining()) {
+        if (tokens.size() == maxBatchSize) {
+          throw new IllegalStateException(String.format("Batch exceeds the limit of %d tokens", maxBatchSize));
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+          throw new IllegalStateException("Malformed introspection request");
+        }
+        tokens.add(new String(body, buffer.position(), length, StandardCharsets.US_ASCII));
+        buffer.position(buffer.position() + length);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("Malformed introspection request");
+    }
+    return tokens;
+  }
+}
@@ -1,11 +1,22 @@
 package project.web.services;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import project.web.entities.AuthEventType;
+import project.web.entities.BulkRoleRequest;
+import project.web.entities.BulkRoleResponse;
 import project.web.entities.Role;
+import project.web.entities.UserFilter;
 import project.web.entities.UserRole;
+import project.web.exceptions.InvalidBulkRoleRequestException;
 import project.web.repositories.UserRoleRepository;
+import project.web.services.CacheInvalidationService.Region;
 
 /**
  * Service class for managing user roles.
@@ -15,14 +26,24 @@ import project.web.repositories.UserRoleRepository;
 public class UserRoleService {
 
   private final UserRoleRepository repository;
+  private final AuditLogService auditLogService;
+  private final CacheInvalidationService cacheInvalidationService;
+  private final JdbcTemplate jdbcTemplate;
 
   /**
    * Constructor for UserRoleService.
    *
    * @param repository The repository for user roles.
+   * @param auditLogService The service recording role changes.
+   * @param cacheInvalidationService The service announcing role changes to other replicas.
+   * @param jdbcTemplate The template used for bulk role changes.
    */
-  public UserRoleService(UserRoleRepository repository){
+  public UserRoleService(UserRoleRepository repository, AuditLogService auditLogService,
+      CacheInvalidationService cacheInvalidationService, JdbcTemplate jdbcTemplate){
     this.repository = repository;
+    this.auditLogService = auditLogService;
+    this.cacheInvalidationService = cacheInvalidationService;
+    this.jdbcTemplate = jdbcTemplate;
   }
 
   /**
@@ -50,14 +71,18 @@ public class UserRoleService {
    *
    * @param id The ID of the user role to update.
    * @param entity The updated user role entity.
+   * @param principal The name of the user making the change, recorded in the audit log.
    * @return The updated user role.
    */
-  public UserRole update(Long id, UserRole entity) {
+  public UserRole update(Long id, UserRole entity, String principal) {
     UserRole existingEntity = repository.findById(id).orElse(null);
     if (existingEntity != null) {
       existingEntity = entity;
     }
-    return repository.save(existingEntity);
+    UserRole saved = repository.save(existingEntity);
+    auditLogService.record(AuthEventType.ROLE_UPDATED, null, principal, "role " + id);
+    cacheInvalidationService.invalidate(Region.ROLE, id);
+    return saved;
   }
 
   /**
@@ -69,6 +94,17 @@ public class UserRoleService {
     repository.save(entity);
   }
 
+  /**
+   * Create a new user role on behalf of a user and record it in the audit log.
+   *
+   * @param entity The user role to create.
+   * @param principal The name of the user creating the role.
+   */
+  public void create(UserRole entity, String principal) {
+    save(entity);
+    auditLogService.record(AuthEventType.ROLE_CREATED, null, principal, String.valueOf(entity.getRole()));
+  }
+
   /**
    * Check if a user role with the specified role exists.
    *
@@ -83,8 +119,161 @@ public class UserRoleService {
    * Delete a user role by its ID.
    *
    * @param id The ID of the user role to delete.
+   * @param principal The name of the user deleting the role, recorded in the audit log.
    */
-  public void deleteById(Long id) {
+  public void deleteById(Long id, String principal) {
     repository.deleteById(id);
+    auditLogService.record(AuthEventType.ROLE_DELETED, null, principal, "role " + id);
+    cacheInvalidationService.invalidate(Region.ROLE, id);
+  }
+
+  /**
+   * Assign a role to every selected user that does not have it yet.
+   * The change is made with set-based statements, without loading any users, and the refresh tokens of the
+   * affected users are deleted so that their next tokens carry the new role.
+   *
+   * @param request The role and the user ids or filter selecting the users.
+   * @param principal The name of the user making the change, recorded in the audit log.
+   * @return The role and the number of users that received it.
+   * @throws InvalidBulkRoleRequestException If the request selects no users.
+   */
+  public BulkRoleResponse assignRole(BulkRoleRequest request, String principal) throws InvalidBulkRoleRequestException {
+    Selection selection = select(request);
+    UserRole role = repository.findUserRoleByRole(request.getRole())
+        .orElseGet(() -> repository.save(new UserRole(null, request.getRole())));
+    String affected = selection.sql
+        + " AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role_id = ?)";
+
+    jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (" + affected + ")",
+        selection.setter(null, role.getId()));
+    int count = jdbcTemplate.update(
+        "INSERT INTO user_roles (user_id, role_id) SELECT a.id, ? FROM (" + affected + ") a",
+        selection.setter(role.getId(), role.getId()));
+    return completeBulkChange(AuthEventType.ROLE_ASSIGNED, role, count, principal);
+  }
+
+  /**
+   * Revoke a role from every selected user that has it.
+   * The change is made with set-based statements, without loading any users, and the refresh tokens of the
+   * affected users are deleted so that their next tokens no longer carry the role.
+   *
+   * @param request The role and the user ids or filter selecting the users.
+   * @param principal The name of the user making the change, recorded in the audit log.
+   * @return The role and the number of users that lost it.
+   * @throws InvalidBulkRoleRequestException If the request selects no users.
+   */
+  public BulkRoleResponse revokeRole(BulkRoleRequest request, String principal) throws InvalidBulkRoleRequestException {
+    Selection selection = select(request);
+    UserRole role = repository.findUserRoleByRole(request.getRole()).orElse(null);
+    if (role == null) {
+      return new BulkRoleResponse(request.getRole(), 0);
+    }
+    String affected = selection.sql
+        + " AND EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role_id = ?)";
+
+    jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (" + affected + ")",
+        selection.setter(null, role.getId()));
+    int count = jdbcTemplate.update(
+        "DELETE FROM user_roles WHERE role_id = ? AND user_id IN (" + selection.sql + ")",
+        selection.setter(role.getId(), null));
+    return completeBulkChange(AuthEventType.ROLE_REVOKED, role, count, principal);
+  }
+
+  private BulkRoleResponse completeBulkChange(AuthEventType type, UserRole role, int count, String principal) {
+    if (count > 0) {
+      auditLogService.record(type, null, principal, String.format("%s for %d users", role.getRole(), count));
+      cacheInvalidationService.invalidate(Region.ROLE, role.getId());
+    }
+    return new BulkRoleResponse(role.getRole(), count);
+  }
+
+  /**
+   * Build the query selecting the ids of the users a bulk request applies to.
+   *
+   * @param request The bulk request.
+   * @return The query and its parameters.
+   * @throws InvalidBulkRoleRequestException If the request has neither user ids nor a filter.
+   */
+  private Selection select(BulkRoleRequest request) throws InvalidBulkRoleRequestException {
+    StringBuilder sql = new StringBuilder("SELECT u.id FROM users u WHERE 1 = 1");
+    List<Object> params = new ArrayList<>();
+    boolean restricted = false;
+
+    if (request.getUserIds() != null) {
+      sql.append(" AND u.id = ANY (?)");
+      params.add(request.getUserIds().toArray(new Long[0]));
+      restricted = true;
+    }
+    UserFilter filter = request.getFilter();
+    if (filter != null) {
+      restricted |= appendCondition(sql, params, "u.country = ?", filter.getCountry());
+      restricted |= appendCondition(sql, params, "u.region = ?", filter.getRegion());
+      restricted |= appendCondition(sql, params, "u.city = ?", filter.getCity());
+      restricted |= appendCondition(sql, params, "u.gender = ?", filter.getGender());
+      restricted |= appendCondition(sql, params, "u.username LIKE ?",
+          filter.getUsernamePrefix() == null ? null : escapeLike(filter.getUsernamePrefix()) + "%");
+      restricted |= appendCondition(sql, params, "EXISTS (SELECT 1 FROM user_roles fr JOIN roles r ON r.id = "
+          + "fr.role_id WHERE fr.user_id = u.id AND r.role = ?)",
+          filter.getHasRole() == null ? null : filter.getHasRole().name());
+    }
+    if (!restricted) {
+      throw InvalidBulkRoleRequestException.INSTANCE;
+    }
+    return new Selection(sql.toString(), params);
+  }
+
+  private static boolean appendCondition(StringBuilder sql, List<Object> params, String condition, String value) {
+    if (value == null || value.isEmpty()) {
+      return false;
+    }
+    sql.append(" AND ").append(condition);
+    params.add(value);
+    return true;
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  /**
+   * A user selection query and its parameters.
+   */
+  private static final class Selection {
+    private final String sql;
+    private final List<Object> params;
+
+    private Selection(String sql, List<Object> params) {
+      this.sql = sql;
+      this.params = params;
+    }
+
+    /**
+     * Bind the selection parameters, surrounded by the parameters of the enclosing statement.
+     *
+     * @param before The parameter placed before the selection, or null if there is none.
+     * @param after  The parameter placed after the selection, or null if there is none.
+     */
+    private PreparedStatementSetter setter(Long before, Long after) {
+      return ps -> {
+        int index = 1;
+        if (before != null) {
+          ps.setLong(index++, before);
+        }
+        for (Object param : params) {
+          bind(ps, index++, param);
+        }
+        if (after != null) {
+          ps.setLong(index, after);
+        }
+      };
+    }
+
+    private static void bind(PreparedStatement ps, int index, Object param) throws SQLException {
+      if (param instanceof Long[]) {
+        ps.setArray(index, ps.getConnection().createArrayOf("BIGINT", (Long[]) param));
+      } else {
+        ps.setString(index, (String) param);
+      }
+    }
   }
-}
\ No newline at end of file
+}
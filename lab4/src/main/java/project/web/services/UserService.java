@@ -7,7 +7,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -19,7 +18,9 @@ import project.web.entities.User;
 import project.web.entities.UserDTO;
 import project.web.entities.UserRole;
 import project.web.exceptions.UserAlreadyExistsException;
+import project.web.exceptions.UserNotFoundException;
 import project.web.repositories.UserRepository;
+import project.web.services.CacheInvalidationService.Region;
 
 /**
  * Service class for managing user-related operations and integrating with the user repository.
@@ -31,6 +32,8 @@ public class UserService implements UserDetailsService {
 
   private final UserRepository repository;
   private final UserRoleService userRoleService;
+  private final PasswordHashingService passwordHashingService;
+  private final CacheInvalidationService cacheInvalidationService;
   private final ModelMapper modelMapper = new ModelMapper();
 
   /**
@@ -55,15 +58,10 @@ public class UserService implements UserDetailsService {
    *
    * @param usernameOrEmail The username or email of the user.
    * @return The user with the specified username or email.
+   * @throws UserNotFoundException If the user is not found.
    */
-  public User getByUsernameOrEmail(String usernameOrEmail) {
-    Optional<User> user = findByUsernameOrEmail(usernameOrEmail);
-
-    if (user.isEmpty()) {
-      throw new UsernameNotFoundException(
-          String.format("User with username '%s' not found", usernameOrEmail));
-    }
-    return user.get();
+  public User getByUsernameOrEmail(String usernameOrEmail) throws UserNotFoundException {
+    return findByUsernameOrEmail(usernameOrEmail).orElseThrow(() -> UserNotFoundException.INSTANCE);
   }
 
   /**
@@ -91,14 +89,10 @@ public class UserService implements UserDetailsService {
    *
    * @param id The ID of the user.
    * @return The user with the specified ID.
-   * @throws BadCredentialsException If the user with the specified ID is not found.
+   * @throws UserNotFoundException If the user with the specified ID is not found.
    */
-  public User getById(Long id) {
-    Optional<User> user = repository.findById(id);
-    if (user.isEmpty()) {
-      throw new BadCredentialsException(String.format("User with id '%d' not found", id));
-    }
-    return user.get();
+  public User getById(Long id) throws UserNotFoundException {
+    return repository.findById(id).orElseThrow(() -> UserNotFoundException.INSTANCE);
   }
 
   /**
@@ -114,13 +108,26 @@ public class UserService implements UserDetailsService {
   }
 
   /**
-   * Save a new user entity.
+   * Save a user entity. Roles that are not stored yet are saved first.
    *
    * @param entity The user entity to save.
    */
   public void save(User entity) {
-    entity.getRoles().forEach(userRoleService::save);
+    entity.getRoles().stream().filter(role -> role.getId() == null).forEach(userRoleService::save);
     repository.save(entity);
+    cacheInvalidationService.invalidate(Region.USER, entity.getUsername());
+  }
+
+  /**
+   * Replace the stored password hash of a user.
+   *
+   * @param user The user whose password hash is replaced.
+   * @param encodedPassword The new encoded password.
+   */
+  public void updatePassword(User user, String encodedPassword) {
+    user.setPassword(encodedPassword);
+    repository.save(user);
+    cacheInvalidationService.invalidate(Region.USER, user.getUsername());
   }
 
   /**
@@ -175,10 +182,9 @@ public class UserService implements UserDetailsService {
    * @param usernameOrEmail The username or email of the user.
    * @return Optional containing the user with the specified username or email, or empty if not found.
    */
-  private Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
-    return Optional.ofNullable(repository.findByUsername(usernameOrEmail)
-        .orElseGet(() -> repository.findByEmail(usernameOrEmail)
-            .orElseThrow(() -> new BadCredentialsException(String.format("User with username or email '%s' not found", usernameOrEmail)))));
+  public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+    return repository.findByUsername(usernameOrEmail)
+        .or(() -> repository.findByEmail(usernameOrEmail));
   }
 
   /**
@@ -190,6 +196,7 @@ public class UserService implements UserDetailsService {
   private User getNewUserFromDTO(UserDTO userDTO) {
     User newUser = new User();
     modelMapper.map(userDTO, newUser);
+    newUser.setPassword(passwordHashingService.hash(userDTO.getPassword()));
     newUser.setAccountNonExpired(true);
     newUser.setAccountNonLocked(true);
     newUser.setEnabled(true);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS auth_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    user_id BIGINT,
+    principal VARCHAR(255),
+    detail VARCHAR(255),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_auth_events_created_at ON auth_events (created_at);
+CREATE INDEX idx_auth_events_user_id ON auth_events (user_id);
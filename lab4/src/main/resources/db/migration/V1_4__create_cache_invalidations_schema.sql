@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGSERIAL PRIMARY KEY,
+    region VARCHAR(32) NOT NULL,
+    entity_key VARCHAR(255) NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_cache_invalidations_created_at ON cache_invalidations (created_at);
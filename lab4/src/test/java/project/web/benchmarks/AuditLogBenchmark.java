@@ -0,0 +1,56 @@
+package project.web.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.web.entities.AuthEventType;
+import project.web.services.AuditLogService;
+import project.web.services.AuditLogService.OverflowPolicy;
+
+/**
+ * Measures the time a request thread spends recording one audit event.
+ *
+ * <p>The consumer writes to a template that discards the batches, so only the cost of publishing into the ring
+ * buffer is measured. Run it with:</p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=project.web.benchmarks.AuditLogBenchmark
+ * </pre>
+ */
+public final class AuditLogBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 1_000_000;
+  private static final int ITERATIONS = 5_000_000;
+
+  private AuditLogBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    AuditLogService service = new AuditLogService(new DiscardingJdbcTemplate(), new SimpleMeterRegistry(),
+        true, 8192, 256, OverflowPolicy.DROP);
+    service.start();
+    try {
+      measure(service, WARMUP_ITERATIONS);
+      System.out.printf("%-10s %12s%n", "case", "ns/event");
+      System.out.printf("%-10s %12.1f%n", "record", measure(service, ITERATIONS));
+    } finally {
+      service.stop();
+    }
+  }
+
+  private static double measure(AuditLogService service, int iterations) {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      service.record(AuthEventType.LOGIN_SUCCESS, (long) (i & 0xff), "user", null);
+    }
+    return (System.nanoTime() - start) / (double) iterations;
+  }
+
+  private static final class DiscardingJdbcTemplate extends JdbcTemplate {
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+      return new int[pss.getBatchSize()];
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package project.web.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import project.web.exceptions.InvalidCredentialsException;
+import project.web.exceptions.WebError;
+
+/**
+ * Measures the cost of reporting one failed login, from throwing the exception to producing the response body.
+ *
+ * <p>The "before" case throws a new {@link BadCredentialsException} with a formatted message and serializes a new
+ * {@link WebError}, as the login path used to. The "after" case throws the shared, stackless
+ * {@link InvalidCredentialsException} and completes a body prefix serialized once with the current timestamp, as
+ * {@link project.web.exceptions.handlers.ControllerExceptionHandler} does. Run it with:</p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=project.web.benchmarks.AuthFailureBenchmark
+ * </pre>
+ */
+public final class AuthFailureBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 200_000;
+  private static final int ITERATIONS = 1_000_000;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static byte[] precomputedPrefix;
+  private static long sink;
+
+  private AuthFailureBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("status", HttpStatus.UNAUTHORIZED.value());
+    body.put("message", InvalidCredentialsException.INSTANCE.getMessage());
+    byte[] json = MAPPER.writeValueAsBytes(body);
+    byte[] key = ",\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+    precomputedPrefix = Arrays.copyOf(json, json.length - 1 + key.length);
+    System.arraycopy(key, 0, precomputedPrefix, json.length - 1, key.length);
+
+    for (int round = 0; round < 3; round++) {
+      measure(WARMUP_ITERATIONS, AuthFailureBenchmark::before);
+      measure(WARMUP_ITERATIONS, AuthFailureBenchmark::after);
+    }
+    System.out.printf("%-8s %12s%n", "case", "ns/failure");
+    System.out.printf("%-8s %12.1f%n", "before", measure(ITERATIONS, AuthFailureBenchmark::before));
+    System.out.printf("%-8s %12.1f%n", "after", measure(ITERATIONS, AuthFailureBenchmark::after));
+    System.out.println("(sink " + sink + ")");
+  }
+
+  private static double measure(int iterations, Failure failure) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += failure.report("password" + (i & 0xff)).length;
+    }
+    return (System.nanoTime() - start) / (double) iterations;
+  }
+
+  private static byte[] before(String password) throws Exception {
+    try {
+      throw new BadCredentialsException(String.format("Invalid user password - '%s'", password));
+    } catch (BadCredentialsException e) {
+      return MAPPER.writeValueAsBytes(new WebError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()));
+    }
+  }
+
+  private static byte[] after(String password) throws Exception {
+    try {
+      throw InvalidCredentialsException.INSTANCE;
+    } catch (InvalidCredentialsException e) {
+      byte[] timestamp = MAPPER.writeValueAsBytes(new Date());
+      byte[] body = Arrays.copyOf(precomputedPrefix, precomputedPrefix.length + timestamp.length + 1);
+      System.arraycopy(timestamp, 0, body, precomputedPrefix.length, timestamp.length);
+      body[body.length - 1] = '}';
+      return body;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Failure {
+    byte[] report(String password) throws Exception;
+  }
+}
@@ -0,0 +1,97 @@
+package project.web.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import project.web.services.PasswordHashingService;
+import project.web.services.PasswordHashingService.Algorithm;
+
+/**
+ * Measures password hashing throughput for each supported algorithm and cost.
+ *
+ * <p>Every setting is hashed on one thread per available core for a fixed time and reported as hashes per second
+ * per core, together with the resulting single-login latency. Run it on the target hardware:</p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=project.web.benchmarks.PasswordHashingBenchmark
+ * </pre>
+ */
+public final class PasswordHashingBenchmark {
+
+  private static final long WARMUP_MILLIS = 2_000;
+  private static final long MEASURE_MILLIS = 5_000;
+  private static final String PASSWORD = "correct horse battery staple";
+
+  private PasswordHashingBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int cores = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(cores);
+    System.out.printf("%-8s %8s %16s %14s%n", "algo", "cost", "hashes/s/core", "latency ms");
+    try {
+      for (Setting setting : settings()) {
+        PasswordHashingService service = new PasswordHashingService(setting.algorithm.getId(), setting.cost);
+        run(service, executor, cores, WARMUP_MILLIS);
+        double perCore = run(service, executor, cores, MEASURE_MILLIS) / cores;
+        System.out.printf("%-8s %8d %16.1f %14.2f%n",
+            setting.algorithm.getId(), setting.cost, perCore, 1000.0 / perCore);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Hashes on every core for the given time.
+   *
+   * @return Total hashes per second across all cores.
+   */
+  private static double run(PasswordHashingService service, ExecutorService executor, int threads, long millis)
+      throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    List<Future<Long>> results = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < threads; i++) {
+      results.add(executor.submit(() -> {
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+          service.hash(PASSWORD);
+          count++;
+        }
+        return count;
+      }));
+    }
+    long total = 0;
+    for (Future<Long> result : results) {
+      total += result.get();
+    }
+    return total / ((System.nanoTime() - start) / 1e9);
+  }
+
+  private static List<Setting> settings() {
+    return List.of(
+        new Setting(Algorithm.BCRYPT, 8),
+        new Setting(Algorithm.BCRYPT, 10),
+        new Setting(Algorithm.BCRYPT, 12),
+        new Setting(Algorithm.PBKDF2, 100_000),
+        new Setting(Algorithm.PBKDF2, 310_000),
+        new Setting(Algorithm.ARGON2, 1),
+        new Setting(Algorithm.ARGON2, 2),
+        new Setting(Algorithm.ARGON2, 3));
+  }
+
+  private static final class Setting {
+    private final Algorithm algorithm;
+    private final int cost;
+
+    private Setting(Algorithm algorithm, int cost) {
+      this.algorithm = algorithm;
+      this.cost = cost;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package project.web.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.web.entities.AuthEventType;
+import project.web.services.AuditLogService.OverflowPolicy;
+
+/**
+ * Stores audit events in an H2 database through a buffer of two slots, so that producers regularly wait for space.
+ */
+class AuditLogServiceTests {
+
+  private SimpleMeterRegistry meterRegistry;
+  private FailingOnceJdbcTemplate jdbcTemplate;
+  private AuditLogService service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new FailingOnceJdbcTemplate(new DriverManagerDataSource(
+        "jdbc:h2:mem:audit;DB_CLOSE_DELAY=-1", "sa", ""));
+    jdbcTemplate.execute("DROP TABLE IF EXISTS auth_events");
+    jdbcTemplate.execute("CREATE TABLE auth_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+        + "event_type VARCHAR(32) NOT NULL, user_id BIGINT, principal VARCHAR(255), detail VARCHAR(255), "
+        + "created_at TIMESTAMP NOT NULL)");
+    meterRegistry = new SimpleMeterRegistry();
+    service = new AuditLogService(jdbcTemplate, meterRegistry, true, 2, 2, OverflowPolicy.BLOCK);
+    service.start();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    service.stop();
+  }
+
+  @Test
+  void eventsAreStored() throws InterruptedException {
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      for (long id = 1; id <= 100; id++) {
+        service.record(AuthEventType.LOGIN_SUCCESS, id, "user" + id, null);
+      }
+    });
+    service.stop();
+
+    assertEquals(100, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auth_events", Integer.class));
+    assertEquals(100, meterRegistry.counter("auth.audit.written").count());
+    assertEquals(0, service.getLag());
+  }
+
+  @Test
+  void unexpectedFailureDropsBatchAndKeepsConsumerRunning() throws InterruptedException {
+    jdbcTemplate.failNext.set(true);
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      for (long id = 1; id <= 10; id++) {
+        service.record(AuthEventType.LOGIN_FAILURE, id, "user" + id, "bad password");
+      }
+    });
+    service.stop();
+
+    int stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auth_events", Integer.class);
+    double dropped = meterRegistry.counter("auth.audit.dropped").count();
+    assertEquals(10, stored + (int) dropped);
+    assertEquals(stored, (int) meterRegistry.counter("auth.audit.written").count());
+    assertEquals(0, service.getLag());
+  }
+
+  /**
+   * Throws an exception that is not a {@code DataAccessException} from the first batch after {@code failNext} is
+   * set.
+   */
+  private static final class FailingOnceJdbcTemplate extends JdbcTemplate {
+    private final AtomicBoolean failNext = new AtomicBoolean();
+
+    private FailingOnceJdbcTemplate(DriverManagerDataSource dataSource) {
+      super(dataSource);
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+      if (failNext.compareAndSet(true, false)) {
+        throw new IllegalStateException("unexpected failure");
+      }
+      return super.batchUpdate(sql, pss);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package project.web.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.web.services.CacheInvalidationService.Region;
+
+/**
+ * Runs two replicas against a shared H2 database, which exchanges invalidations by polling the change log.
+ */
+class CacheInvalidationServiceTests {
+
+  private JdbcTemplate jdbcTemplate;
+  private CacheInvalidationService first;
+  private CacheInvalidationService second;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("DROP TABLE IF EXISTS cache_invalidations");
+    jdbcTemplate.execute("CREATE TABLE cache_invalidations (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+        + "region VARCHAR(32) NOT NULL, entity_key VARCHAR(255) NOT NULL, node_id VARCHAR(64) NOT NULL, "
+        + "created_at TIMESTAMP NOT NULL)");
+
+    first = new CacheInvalidationService(dataSource, true, "first", 10, 20, 3_600_000, "", "", "");
+    second = new CacheInvalidationService(dataSource, true, "second", 10, 20, 3_600_000, "", "", "");
+    first.start();
+    second.start();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    first.stop();
+    second.stop();
+  }
+
+  @Test
+  void invalidationReachesOtherReplica() throws InterruptedException {
+    BlockingQueue<Set<String>> local = new LinkedBlockingQueue<>();
+    BlockingQueue<Set<String>> remote = new LinkedBlockingQueue<>();
+    first.subscribe(Region.USER, local::add);
+    second.subscribe(Region.USER, remote::add);
+
+    first.invalidate(Region.USER, "alice");
+
+    assertEquals(Set.of("alice"), local.poll(0, TimeUnit.SECONDS));
+    assertEquals(Set.of("alice"), remote.poll(5, TimeUnit.SECONDS));
+    Thread.sleep(100);
+    assertTrue(local.isEmpty(), "own invalidations are not applied twice");
+    assertTrue(remote.isEmpty(), "invalidations are applied once");
+  }
+
+  @Test
+  void burstOfInvalidationsArrives() throws InterruptedException {
+    BlockingQueue<Set<String>> roles = new LinkedBlockingQueue<>();
+    second.subscribe(Region.ROLE, roles::add);
+
+    for (long id = 1; id <= 100; id++) {
+      first.invalidate(Region.ROLE, id);
+    }
+
+    int received = 0;
+    while (received < 100) {
+      Set<String> keys = roles.poll(5, TimeUnit.SECONDS);
+      assertNotNull(keys, "all invalidations arrive");
+      received += keys.size();
+    }
+    assertEquals(100, received);
+  }
+
+  @Test
+  void invalidationIsWrittenAfterFailedFlush() throws InterruptedException {
+    BlockingQueue<Set<String>> remote = new LinkedBlockingQueue<>();
+    second.subscribe(Region.SESSION, remote::add);
+
+    jdbcTemplate.execute("ALTER TABLE cache_invalidations RENAME TO cache_invalidations_offline");
+    first.invalidate(Region.SESSION, "bob");
+    Thread.sleep(200);
+    jdbcTemplate.execute("ALTER TABLE cache_invalidations_offline RENAME TO cache_invalidations");
+
+    assertEquals(Set.of("bob"), remote.poll(5, TimeUnit.SECONDS));
+  }
+}
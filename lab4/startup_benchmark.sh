@@ -0,0 +1,38 @@
+#!/bin/bash
+# Измеряет время от запуска JVM до первого успешного /auth/login.
+#
+# Использование: ./startup_benchmark.sh <каталог с jar> <jar> [запусков] [доп. опции JVM]
+#   ./startup_benchmark.sh target/cds web-0.0.1-SNAPSHOT-cds.jar 5
+#   ./startup_benchmark.sh target/cds web-0.0.1-SNAPSHOT-cds.jar 5 "-XX:SharedArchiveFile=app.jsa"
+#
+# Переменные окружения: MY_URL_FROM_ENV, MY_USERNAME_FROM_ENV, MY_PASSWORD_FROM_ENV - подключение к БД,
+# BENCH_LOGIN и BENCH_PASSWORD - существующий пользователь, BENCH_PORT - порт приложения (8080).
+
+APP_DIR=$1
+APP_JAR=$2
+RUNS=${3:-5}
+EXTRA_OPTS=$4
+PORT=${BENCH_PORT:-8080}
+BODY="{\"usernameOrEmail\":\"${BENCH_LOGIN}\",\"password\":\"${BENCH_PASSWORD}\"}"
+
+for run in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  (cd "$APP_DIR" && exec java $EXTRA_OPTS -Dspring.profiles.active=prod -Dserver.port="$PORT" -jar "$APP_JAR") \
+    > /dev/null 2>&1 &
+  pid=$!
+
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST -H 'Content-Type: application/json' \
+      -d "$BODY" "http://localhost:${PORT}/auth/login")" = "200" ]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "Запуск $run: приложение завершилось до первого входа"
+      exit 1
+    fi
+    sleep 0.05
+  done
+
+  end=$(date +%s%N)
+  echo "Запуск $run: первый успешный вход через $(( (end - start) / 1000000 )) мс"
+
+  kill "$pid"
+  wait "$pid" 2> /dev/null
+done
@@ -0,0 +1,176 @@
+package backend.hobbiebackend.cache;
+
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable copy of a hobby with its category and location, as shown on the hobby details page. It serializes
+ * to the same JSON as the {@link Hobby} entity, so it can be shared between requests and threads.
+ */
+public final class HobbySnapshot {
+    private final Long id;
+    private final String name;
+    private final String slogan;
+    private final String intro;
+    private final String description;
+    private final Reference<CategoryNameEnum> category;
+    private final String creator;
+    private final BigDecimal price;
+    private final Reference<LocationEnum> location;
+    private final String profileImgUrl;
+    private final String galleryImgUrl1;
+    private final String galleryImgUrl2;
+    private final String galleryImgUrl3;
+    private final String profileImg_id;
+    private final String galleryImg1_id;
+    private final String galleryImg2_id;
+    private final String galleryImg3_id;
+    private final String contactInfo;
+    private final long version;
+    private final Instant updatedAt;
+
+    public HobbySnapshot(Hobby hobby) {
+        this.id = hobby.getId();
+        this.name = hobby.getName();
+        this.slogan = hobby.getSlogan();
+        this.intro = hobby.getIntro();
+        this.description = hobby.getDescription();
+        this.category = hobby.getCategory() == null ? null
+                : new Reference<>(hobby.getCategory().getId(), hobby.getCategory().getName());
+        this.creator = hobby.getCreator();
+        this.price = hobby.getPrice();
+        this.location = hobby.getLocation() == null ? null
+                : new Reference<>(hobby.getLocation().getId(), hobby.getLocation().getName());
+        this.profileImgUrl = hobby.getProfileImgUrl();
+        this.galleryImgUrl1 = hobby.getGalleryImgUrl1();
+        this.galleryImgUrl2 = hobby.getGalleryImgUrl2();
+        this.galleryImgUrl3 = hobby.getGalleryImgUrl3();
+        this.profileImg_id = hobby.getProfileImg_id();
+        this.galleryImg1_id = hobby.getGalleryImg1_id();
+        this.galleryImg2_id = hobby.getGalleryImg2_id();
+        this.galleryImg3_id = hobby.getGalleryImg3_id();
+        this.contactInfo = hobby.getContactInfo();
+        this.version = hobby.getVersion();
+        this.updatedAt = hobby.getUpdatedAt();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSlogan() {
+        return slogan;
+    }
+
+    public String getIntro() {
+        return intro;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Reference<CategoryNameEnum> getCategory() {
+        return category;
+    }
+
+    public String getCreator() {
+        return creator;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Reference<LocationEnum> getLocation() {
+        return location;
+    }
+
+    public String getProfileImgUrl() {
+        return profileImgUrl;
+    }
+
+    public String getGalleryImgUrl1() {
+        return galleryImgUrl1;
+    }
+
+    public String getGalleryImgUrl2() {
+        return galleryImgUrl2;
+    }
+
+    public String getGalleryImgUrl3() {
+        return galleryImgUrl3;
+    }
+
+    public String getProfileImg_id() {
+        return profileImg_id;
+    }
+
+    public String getGalleryImg1_id() {
+        return galleryImg1_id;
+    }
+
+    public String getGalleryImg2_id() {
+        return galleryImg2_id;
+    }
+
+    public String getGalleryImg3_id() {
+        return galleryImg3_id;
+    }
+
+    public String getContactInfo() {
+        return contactInfo;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Approximates the memory held by the snapshot, which is dominated by its text fields.
+     */
+    int estimateBytes() {
+        int chars = length(name) + length(slogan) + length(intro) + length(description) + length(creator)
+                + length(profileImgUrl) + length(galleryImgUrl1) + length(galleryImgUrl2) + length(galleryImgUrl3)
+                + length(profileImg_id) + length(galleryImg1_id) + length(galleryImg2_id) + length(galleryImg3_id)
+                + length(contactInfo);
+        return 256 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * A category or location of the hobby.
+     */
+    public static final class Reference<E extends Enum<E>> {
+        private final Long id;
+        private final E name;
+
+        Reference(Long id, E name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public E getName() {
+            return name;
+        }
+    }
+}
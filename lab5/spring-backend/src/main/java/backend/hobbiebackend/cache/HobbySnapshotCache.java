@@ -0,0 +1,83 @@
+package backend.hobbiebackend.cache;
+
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import backend.hobbiebackend.utility.Transactions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-through cache of {@link HobbySnapshot}s by hobby id, for the hobby details page. Each snapshot is kept
+ * together with its serialized JSON, see {@link SerializedHobby}.
+ * <p>
+ * The cache is bounded by the estimated size of its entries and evicts with Caffeine's W-TinyLFU policy, so
+ * popular hobbies stay cached while rarely viewed ones are dropped first. Concurrent misses on the same id wait
+ * for a single load. Changed hobbies are invalidated right away and again after the changing transaction
+ * commits, so a snapshot of the old state that a concurrent request loaded meanwhile is not kept. Statistics
+ * are exported as the {@code cache.*} metrics with the tag {@code cache=hobbies}.
+ */
+@Component
+public class HobbySnapshotCache {
+    private final HobbyRepository hobbyRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, SerializedHobby> cache;
+
+    @Autowired
+    public HobbySnapshotCache(HobbyRepository hobbyRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${hobbie.cache.hobbies.max-bytes:33554432}") long maxBytes,
+                              @Value("${hobbie.cache.hobbies.expire-after-write-s:600}") long expireAfterWriteSeconds) {
+        this.hobbyRepository = hobbyRepository;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, SerializedHobby hobby) -> hobby.estimateBytes())
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "hobbies");
+    }
+
+    /**
+     * @return the snapshot of the hobby, or null if it does not exist
+     */
+    public HobbySnapshot get(long hobbyId) {
+        SerializedHobby hobby = getSerialized(hobbyId);
+        return hobby == null ? null : hobby.getSnapshot();
+    }
+
+    /**
+     * @return the snapshot of the hobby with its JSON, or null if it does not exist
+     */
+    public SerializedHobby getSerialized(long hobbyId) {
+        return this.cache.get(hobbyId, id -> this.hobbyRepository.findWithReferencesById(id)
+                .map(hobby -> new SerializedHobby(new HobbySnapshot(hobby), this.objectMapper))
+                .orElse(null));
+    }
+
+    /**
+     * @return the cached snapshot of the hobby with its JSON, or null if it is not cached
+     */
+    public SerializedHobby getSerializedIfPresent(long hobbyId) {
+        return this.cache.getIfPresent(hobbyId);
+    }
+
+    public void invalidate(long hobbyId) {
+        this.cache.invalidate(hobbyId);
+        Transactions.afterCommit(() -> this.cache.invalidate(hobbyId));
+    }
+
+    public void invalidateAll(Collection<Long> hobbyIds) {
+        List<Long> ids = List.copyOf(hobbyIds);
+        this.cache.invalidateAll(ids);
+        Transactions.afterCommit(() -> this.cache.invalidateAll(ids));
+    }
+}
@@ -0,0 +1,68 @@
+package backend.hobbiebackend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link HobbySnapshot} together with its JSON body as UTF-8 bytes and, if that is smaller, as gzip. Both are
+ * produced once when the snapshot is loaded, so answering a request only copies bytes to the response.
+ */
+public final class SerializedHobby {
+    private final HobbySnapshot snapshot;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    public SerializedHobby(HobbySnapshot snapshot, ObjectMapper objectMapper) {
+        this.snapshot = snapshot;
+        try {
+            this.json = objectMapper.writeValueAsBytes(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize hobby " + snapshot.getId(), e);
+        }
+        byte[] compressed = gzip(this.json);
+        this.gzip = compressed.length < this.json.length ? compressed : null;
+    }
+
+    public HobbySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return whether the body can be sent with {@code Content-Encoding: gzip}
+     */
+    public boolean hasGzip() {
+        return gzip != null;
+    }
+
+    public int getLength(boolean gzipped) {
+        return body(gzipped).length;
+    }
+
+    public void writeTo(OutputStream out, boolean gzipped) throws IOException {
+        out.write(body(gzipped));
+    }
+
+    int estimateBytes() {
+        return snapshot.estimateBytes() + json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    private byte[] body(boolean gzipped) {
+        return gzipped && gzip != null ? gzip : json;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,162 @@
+package backend.hobbiebackend.cleanup;
+
+import backend.hobbiebackend.model.entities.ImagePurge;
+import backend.hobbiebackend.model.repostiory.ImagePurgeRepository;
+import backend.hobbiebackend.storage.ImageStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends the image purges recorded by {@link ImagePurgeOutbox} to {@link ImageStorage} in batches.
+ * <p>
+ * A failed batch is retried with exponential backoff; purges that still fail after the maximum number of
+ * attempts are kept as dead letters, with their last error, instead of being retried forever.
+ */
+@Component
+public class ImagePurgeDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImagePurgeDispatcher.class);
+
+    private final ImagePurgeRepository imagePurgeRepository;
+    private final ImageStorage imageStorage;
+    private final Counter purged;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+
+    @Value("${hobbie.images.purge.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${hobbie.images.purge.poll-interval-ms:5000}")
+    private long pollIntervalMillis = 5000;
+
+    @Value("${hobbie.images.purge.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${hobbie.images.purge.initial-backoff-ms:1000}")
+    private long initialBackoffMillis = 1000;
+
+    @Value("${hobbie.images.purge.max-backoff-ms:3600000}")
+    private long maxBackoffMillis = 3600000;
+
+    @Autowired
+    public ImagePurgeDispatcher(ImagePurgeRepository imagePurgeRepository, ImageStorage imageStorage,
+                                MeterRegistry meterRegistry) {
+        this.imagePurgeRepository = imagePurgeRepository;
+        this.imageStorage = imageStorage;
+        this.purged = meterRegistry.counter("hobbie.images.purge.purged");
+        this.failed = meterRegistry.counter("hobbie.images.purge.failed");
+        this.deadLettered = meterRegistry.counter("hobbie.images.purge.dead-lettered");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::drain, 0, this.pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.stopping = true;
+        this.executor.shutdown();
+    }
+
+    public void wakeUp() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Sends one batch of due purges to storage.
+     *
+     * @return the number of images purged, 0 if none were due or the batch failed
+     */
+    public int dispatch() {
+        Instant now = Instant.now();
+        int size = Math.min(this.batchSize, this.imageStorage.maxBatchSize());
+        List<ImagePurge> batch = this.imagePurgeRepository
+                .findAllByDeadLetteredFalseAndNextAttemptAtLessThanEqualOrderById(now, PageRequest.of(0, size));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<String> imageIds = new LinkedHashSet<>();
+        for (ImagePurge purge : batch) {
+            imageIds.add(purge.getImageId());
+        }
+        try {
+            this.imageStorage.delete(imageIds);
+        } catch (Exception e) {
+            retryLater(batch, now, e);
+            return 0;
+        }
+        this.imagePurgeRepository.deleteInBatch(batch);
+        this.purged.increment(batch.size());
+        return batch.size();
+    }
+
+    private void drain() {
+        this.scheduled.set(false);
+        try {
+            int size = Math.min(this.batchSize, this.imageStorage.maxBatchSize());
+            while (!this.stopping && dispatch() == size) {
+                // keep going while full batches are due
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not dispatch image purges", e);
+        }
+    }
+
+    private void retryLater(List<ImagePurge> batch, Instant now, Exception error) {
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+        for (ImagePurge purge : batch) {
+            int attempts = purge.getAttempts() + 1;
+            purge.setAttempts(attempts);
+            purge.setLastError(message);
+            if (attempts >= this.maxAttempts) {
+                purge.setDeadLettered(true);
+                this.deadLettered.increment();
+                LOGGER.error("Giving up purging image {} after {} attempts: {}", purge.getImageId(), attempts, message);
+            } else {
+                purge.setNextAttemptAt(now.plusMillis(backoff(attempts)));
+            }
+        }
+        this.imagePurgeRepository.saveAll(batch);
+        this.failed.increment(batch.size());
+        LOGGER.warn("Could not purge {} images, retrying later", batch.size(), error);
+    }
+
+    private long backoff(int attempts) {
+        long delay = this.initialBackoffMillis << Math.min(attempts - 1, 30);
+        if (delay <= 0 || delay > this.maxBackoffMillis) {
+            delay = this.maxBackoffMillis;
+        }
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+}
@@ -0,0 +1,43 @@
+package backend.hobbiebackend.cleanup;
+
+import backend.hobbiebackend.model.entities.ImagePurge;
+import backend.hobbiebackend.model.repostiory.ImagePurgeRepository;
+import backend.hobbiebackend.utility.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records images that should be deleted from storage. The records are written in the caller's transaction, so
+ * they exist exactly when the change that orphaned the images commits, and are sent to storage later by
+ * {@link ImagePurgeDispatcher}.
+ */
+@Component
+public class ImagePurgeOutbox {
+    private final ImagePurgeRepository imagePurgeRepository;
+    private final ImagePurgeDispatcher imagePurgeDispatcher;
+
+    @Autowired
+    public ImagePurgeOutbox(ImagePurgeRepository imagePurgeRepository, ImagePurgeDispatcher imagePurgeDispatcher) {
+        this.imagePurgeRepository = imagePurgeRepository;
+        this.imagePurgeDispatcher = imagePurgeDispatcher;
+    }
+
+    public void enqueue(String... imageIds) {
+        Instant now = Instant.now();
+        List<ImagePurge> purges = new ArrayList<>();
+        for (String imageId : imageIds) {
+            if (imageId != null && !imageId.isBlank()) {
+                purges.add(new ImagePurge(imageId, now));
+            }
+        }
+        if (purges.isEmpty()) {
+            return;
+        }
+        this.imagePurgeRepository.saveAll(purges);
+        Transactions.afterCommit(this.imagePurgeDispatcher::wakeUp);
+    }
+}
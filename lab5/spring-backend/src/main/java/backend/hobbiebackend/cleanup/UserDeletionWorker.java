@@ -0,0 +1,192 @@
+package backend.hobbiebackend.cleanup;
+
+import backend.hobbiebackend.cache.HobbySnapshotCache;
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.matching.HobbyMatchMaintainer;
+import backend.hobbiebackend.search.HobbySearchIndex;
+import backend.hobbiebackend.utility.Transactions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes users that were marked as deleted, together with everything that references them.
+ * <p>
+ * Deleting a user only sets {@code users.deleted}, which hides the user from all reads at once. This worker
+ * then removes the hobbies of a business owner in batches of bounded size, each batch in its own transaction
+ * together with the {@link ImagePurgeOutbox} records of their images, and finally the user's own rows. The marked
+ * users are the work queue, so deletions interrupted by a restart are finished by the next run; besides being
+ * woken up by new deletions, the worker runs periodically.
+ */
+@Component
+public class UserDeletionWorker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserDeletionWorker.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HobbyMatchIndex hobbyMatchIndex;
+    private final HobbyMatchMaintainer hobbyMatchMaintainer;
+    private final FeedVersions feedVersions;
+    private final HobbySnapshotCache hobbySnapshotCache;
+    private final HobbySearchIndex hobbySearchIndex;
+    private final ImagePurgeOutbox imagePurgeOutbox;
+    private final Counter deletedUsers;
+    private final Counter deletedHobbies;
+    private final AtomicInteger pendingUsers = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+
+    @Value("${hobbie.users.deletion.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${hobbie.users.deletion.poll-interval-ms:60000}")
+    private long pollIntervalMillis = 60000;
+
+    @Autowired
+    public UserDeletionWorker(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              HobbyMatchIndex hobbyMatchIndex, HobbyMatchMaintainer hobbyMatchMaintainer,
+                              FeedVersions feedVersions, HobbySnapshotCache hobbySnapshotCache,
+                              HobbySearchIndex hobbySearchIndex, ImagePurgeOutbox imagePurgeOutbox,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hobbyMatchIndex = hobbyMatchIndex;
+        this.hobbyMatchMaintainer = hobbyMatchMaintainer;
+        this.feedVersions = feedVersions;
+        this.hobbySnapshotCache = hobbySnapshotCache;
+        this.hobbySearchIndex = hobbySearchIndex;
+        this.imagePurgeOutbox = imagePurgeOutbox;
+        this.deletedUsers = meterRegistry.counter("hobbie.users.deletion.users");
+        this.deletedHobbies = meterRegistry.counter("hobbie.users.deletion.hobbies");
+        meterRegistry.gauge("hobbie.users.deletion.pending", this.pendingUsers);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::drain, 0, this.pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.stopping = true;
+        this.executor.shutdown();
+    }
+
+    /**
+     * Wakes the worker up once the current transaction, which marked a user as deleted, commits.
+     */
+    public void userDeleted() {
+        Transactions.afterCommit(this::wakeUp);
+    }
+
+    public int getPendingUsers() {
+        return this.pendingUsers.get();
+    }
+
+    private void wakeUp() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        this.scheduled.set(false);
+        try {
+            List<Long> users = this.jdbcTemplate.queryForList("SELECT id FROM users WHERE deleted = TRUE", Long.class);
+            this.pendingUsers.set(users.size());
+            for (Long userId : users) {
+                if (this.stopping) {
+                    return;
+                }
+                purge(userId);
+                this.pendingUsers.decrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not finish deleting users, retrying on the next run", e);
+        }
+    }
+
+    private void purge(long userId) {
+        long started = System.currentTimeMillis();
+        List<Long> hobbies = this.jdbcTemplate.queryForList(
+                "SELECT hobby_offers_id FROM business_owners_hobby_offers WHERE business_owner_id = ?",
+                Long.class, userId);
+        for (int from = 0; from < hobbies.size() && !this.stopping; from += this.batchSize) {
+            List<Long> batch = hobbies.subList(from, Math.min(hobbies.size(), from + this.batchSize));
+            this.transactionTemplate.executeWithoutResult(status -> deleteHobbies(batch));
+            this.deletedHobbies.increment(batch.size());
+            LOGGER.debug("Deleted {} of {} hobbies of user {}", from + batch.size(), hobbies.size(), userId);
+        }
+        if (this.stopping) {
+            return;
+        }
+        this.transactionTemplate.executeWithoutResult(status -> deleteUser(userId));
+        this.deletedUsers.increment();
+        LOGGER.info("Deleted user {} and {} hobbies in {} ms", userId, hobbies.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void deleteHobbies(List<Long> hobbyIds) {
+        String in = String.join(",", Collections.nCopies(hobbyIds.size(), "?"));
+        Object[] ids = hobbyIds.toArray();
+        this.feedVersions.hobbiesChanged(hobbyIds);
+        this.hobbyMatchMaintainer.hobbiesDeleted(hobbyIds);
+        List<String> images = new ArrayList<>();
+        this.jdbcTemplate.query(
+                "SELECT profile_img_id, img1_id, img2_id, img3_id FROM hobbies WHERE id IN (" + in + ")", rs -> {
+                    for (int column = 1; column <= 4; column++) {
+                        images.add(rs.getString(column));
+                    }
+                }, ids);
+        this.imagePurgeOutbox.enqueue(images.toArray(new String[0]));
+        this.jdbcTemplate.update("DELETE FROM app_clients_saved_hobbies WHERE saved_hobbies_id IN (" + in + ")", ids);
+        this.jdbcTemplate.update("DELETE FROM business_owners_hobby_offers WHERE hobby_offers_id IN (" + in + ")", ids);
+        this.jdbcTemplate.update("DELETE FROM hobbies WHERE id IN (" + in + ")", ids);
+        this.hobbySnapshotCache.invalidateAll(hobbyIds);
+        this.hobbySearchIndex.hobbiesDeleted(hobbyIds);
+        for (Long hobbyId : hobbyIds) {
+            this.hobbyMatchIndex.remove(hobbyId);
+        }
+    }
+
+    private void deleteUser(long userId) {
+        List<Long> testResults = this.jdbcTemplate.queryForList(
+                "SELECT test_results_id FROM app_clients WHERE id = ?", Long.class, userId);
+        this.jdbcTemplate.update("DELETE FROM app_clients_saved_hobbies WHERE app_client_id = ?", userId);
+        this.jdbcTemplate.update("DELETE FROM app_clients_hobby_matches WHERE app_client_id = ?", userId);
+        this.jdbcTemplate.update("DELETE FROM app_clients WHERE id = ?", userId);
+        this.jdbcTemplate.update("DELETE FROM business_owners WHERE id = ?", userId);
+        this.jdbcTemplate.update("DELETE FROM users_roles WHERE user_entity_id = ?", userId);
+        this.jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        for (Long testId : testResults) {
+            if (testId != null) {
+                this.jdbcTemplate.update("DELETE FROM test_results WHERE id = ?", testId);
+            }
+        }
+    }
+}
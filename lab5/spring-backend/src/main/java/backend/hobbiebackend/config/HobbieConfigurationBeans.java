@@ -1,5 +1,6 @@
 package backend.hobbiebackend.config;
 
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,5 +20,14 @@ public class HobbieConfigurationBeans {
         return new ModelMapper();
     }
 
+    /**
+     * Writes associations that a use case did not fetch as null instead of loading them during serialization,
+     * which would fail outside of a transaction.
+     */
+    @Bean
+    public Hibernate5Module createHibernate5Module() {
+        return new Hibernate5Module();
+    }
+
 
 }
@@ -64,7 +64,12 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         //         .sessionManagement()
         //         .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
         // http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
-        http.cors().and().csrf().disable();
+        http.cors().and().csrf().disable()
+                .authorizeRequests()
+                .antMatchers("/actuator/matchrebuild/**").hasRole("ADMIN")
+                .antMatchers("/actuator/searchindex/**").hasRole("ADMIN")
+                .anyRequest().permitAll();
+        http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
 
     }
 }
@@ -0,0 +1,94 @@
+package backend.hobbiebackend.feed;
+
+import backend.hobbiebackend.model.dto.VersionDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maintains the feed version of users, which changes whenever a hobby shown in one of their feeds (matches,
+ * saved hobbies or, for business owners, their own hobbies) is added, removed or changed.
+ * <p>
+ * The version and time of the last change are stored in {@code users.feed_version} and
+ * {@code users.feed_updated_at} and are updated in the transaction of the change, so a feed request can be
+ * answered with 304 Not Modified by reading the version alone.
+ */
+@Component
+public class FeedVersions {
+    private static final String BUMP = "UPDATE users SET feed_version = feed_version + 1, feed_updated_at = ? WHERE ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FeedVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the feed version of a user, or null if there is no such user
+     */
+    public VersionDto find(String username) {
+        List<VersionDto> versions = this.jdbcTemplate.query(
+                "SELECT feed_version, feed_updated_at FROM users WHERE username = ? AND deleted = FALSE",
+                (rs, row) -> {
+                    Timestamp updatedAt = rs.getTimestamp(2);
+                    return new VersionDto(rs.getLong(1), updatedAt == null ? null : updatedAt.toInstant());
+                }, username);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    public void userChanged(String username) {
+        this.jdbcTemplate.update(BUMP + "username = ?", now(), username);
+    }
+
+    public void usersChanged(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(userIds.size() + 1);
+        args.add(now());
+        args.addAll(userIds);
+        this.jdbcTemplate.update(BUMP + "id IN (" + placeholders(userIds) + ")", args.toArray());
+    }
+
+    /**
+     * Bumps the feed version of the creator of a hobby and of every client that has it as a match or saved it.
+     */
+    public void hobbyChanged(long hobbyId, String creator) {
+        this.jdbcTemplate.update(BUMP + "username = ?", now(), creator);
+        hobbiesChanged(Collections.singletonList(hobbyId));
+    }
+
+    /**
+     * Bumps the feed version of every client that has one of the hobbies as a match or saved it.
+     */
+    public void hobbiesChanged(Collection<Long> hobbyIds) {
+        if (hobbyIds.isEmpty()) {
+            return;
+        }
+        String in = placeholders(hobbyIds);
+        List<Object> args = new ArrayList<>(hobbyIds.size() * 2 + 1);
+        args.add(now());
+        args.addAll(hobbyIds);
+        args.addAll(hobbyIds);
+        this.jdbcTemplate.update(BUMP
+                + "id IN (SELECT app_client_id FROM app_clients_hobby_matches WHERE hobby_matches_id IN (" + in + ")) "
+                + "OR id IN (SELECT app_client_id FROM app_clients_saved_hobbies WHERE saved_hobbies_id IN (" + in + "))",
+                args.toArray());
+    }
+
+    private static Timestamp now() {
+        return Timestamp.from(Instant.now());
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+}
@@ -0,0 +1,198 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Test;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import backend.hobbiebackend.utility.Transactions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory index of hobby ids by location and category, used to answer hobby matches for test results
+ * without querying the database.
+ * <p>
+ * Every (location, category) bucket is a sorted array of hobby ids that is replaced, never modified, on writes,
+ * so lookups read a consistent snapshot without locking. Changes made inside a transaction are applied once
+ * the transaction commits.
+ */
+@Component
+public class HobbyMatchIndex {
+    private static final long[] EMPTY = new long[0];
+    private static final int CATEGORY_COUNT = CategoryNameEnum.values().length;
+
+    private final HobbyRepository hobbyRepository;
+    private final AtomicReferenceArray<long[]> buckets =
+            new AtomicReferenceArray<>(LocationEnum.values().length * CATEGORY_COUNT);
+    private final Map<Long, Integer> bucketByHobby = new HashMap<>();
+    private final Object lock = new Object();
+
+    @Autowired
+    public HobbyMatchIndex(HobbyRepository hobbyRepository) {
+        this.hobbyRepository = hobbyRepository;
+        clear();
+    }
+
+    /**
+     * Replaces the index with the hobbies in the database, building each bucket once and publishing all of them
+     * together.
+     */
+    @PostConstruct
+    public void load() {
+        synchronized (this.lock) {
+            this.bucketByHobby.clear();
+            for (Object[] entry : this.hobbyRepository.findAllMatchKeys()) {
+                this.bucketByHobby.put((Long) entry[0], bucketOf((LocationEnum) entry[1], (CategoryNameEnum) entry[2]));
+            }
+            int[] sizes = new int[this.buckets.length()];
+            for (int bucket : this.bucketByHobby.values()) {
+                sizes[bucket]++;
+            }
+            long[][] loaded = new long[sizes.length][];
+            for (int i = 0; i < sizes.length; i++) {
+                loaded[i] = sizes[i] == 0 ? EMPTY : new long[sizes[i]];
+                sizes[i] = 0;
+            }
+            for (Map.Entry<Long, Integer> entry : this.bucketByHobby.entrySet()) {
+                int bucket = entry.getValue();
+                loaded[bucket][sizes[bucket]++] = entry.getKey();
+            }
+            for (int i = 0; i < loaded.length; i++) {
+                Arrays.sort(loaded[i]);
+                this.buckets.set(i, loaded[i]);
+            }
+        }
+    }
+
+    public void put(Hobby hobby) {
+        if (hobby.getId() == null || hobby.getLocation() == null || hobby.getCategory() == null) {
+            return;
+        }
+        long id = hobby.getId();
+        LocationEnum location = hobby.getLocation().getName();
+        CategoryNameEnum category = hobby.getCategory().getName();
+        Transactions.afterCommit(() -> {
+            synchronized (this.lock) {
+                putNow(id, location, category);
+            }
+        });
+    }
+
+    public void remove(long hobbyId) {
+        Transactions.afterCommit(() -> {
+            synchronized (this.lock) {
+                removeNow(hobbyId);
+            }
+        });
+    }
+
+    /**
+     * Finds the best matching hobbies for test results.
+     * <p>
+     * Each answered category scores by its position in the test, from 7 for the first answer down to 1 for the
+     * seventh, summed when a category is chosen more than once. Hobbies in the test location are ranked by the
+     * score of their category and then by id, newest first.
+     *
+     * @param results the test results of a client
+     * @param limit   the maximum number of matches
+     * @return the ids of the matching hobbies, best first
+     */
+    public long[] match(Test results, int limit) {
+        if (results == null || results.getLocation() == null || limit <= 0) {
+            return EMPTY;
+        }
+        CategoryNameEnum[] answers = {
+                results.getCategoryOne(), results.getCategoryTwo(), results.getCategoryThree(),
+                results.getCategoryFour(), results.getCategoryFive(), results.getCategorySix(),
+                results.getCategorySeven()
+        };
+        int[] scores = new int[CATEGORY_COUNT];
+        for (int i = 0; i < answers.length; i++) {
+            if (answers[i] != null) {
+                scores[answers[i].ordinal()] += answers.length - i;
+            }
+        }
+
+        int base = results.getLocation().ordinal() * CATEGORY_COUNT;
+        long[] matches = new long[limit];
+        int found = 0;
+        boolean[] used = new boolean[CATEGORY_COUNT];
+        while (found < limit) {
+            int best = -1;
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                if (!used[c] && scores[c] > 0 && (best < 0 || scores[c] > scores[best])) {
+                    best = c;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            used[best] = true;
+            long[] bucket = this.buckets.get(base + best);
+            for (int i = bucket.length - 1; i >= 0 && found < limit; i--) {
+                matches[found++] = bucket[i];
+            }
+        }
+        return found == limit ? matches : Arrays.copyOf(matches, found);
+    }
+
+    public int size() {
+        synchronized (this.lock) {
+            return this.bucketByHobby.size();
+        }
+    }
+
+    private void putNow(long hobbyId, LocationEnum location, CategoryNameEnum category) {
+        int bucket = bucketOf(location, category);
+        Integer previous = this.bucketByHobby.put(hobbyId, bucket);
+        if (previous != null) {
+            if (previous == bucket) {
+                return;
+            }
+            this.buckets.set(previous, without(this.buckets.get(previous), hobbyId));
+        }
+        long[] ids = this.buckets.get(bucket);
+        int position = -Arrays.binarySearch(ids, hobbyId) - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        updated[position] = hobbyId;
+        System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+        this.buckets.set(bucket, updated);
+    }
+
+    private void removeNow(long hobbyId) {
+        Integer bucket = this.bucketByHobby.remove(hobbyId);
+        if (bucket != null) {
+            this.buckets.set(bucket, without(this.buckets.get(bucket), hobbyId));
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, EMPTY);
+        }
+        this.bucketByHobby.clear();
+    }
+
+    private static int bucketOf(LocationEnum location, CategoryNameEnum category) {
+        return location.ordinal() * CATEGORY_COUNT + category.ordinal();
+    }
+
+    private static long[] without(long[] ids, long hobbyId) {
+        int position = Arrays.binarySearch(ids, hobbyId);
+        if (position < 0) {
+            return ids;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        return updated;
+    }
+}
@@ -0,0 +1,295 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Test;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.utility.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the stored hobby matches of clients up to date when hobbies are created, updated or deleted.
+ * <p>
+ * A hobby change marks the clients whose test results name the hobby's location and category, plus the clients
+ * that currently have the hobby as a match. Marked clients are collected for a short delay, so several changes
+ * cause a single refresh per client, and are then refreshed in chunks on a background thread: their matches are
+ * recomputed with {@link HobbyMatchIndex} and only the rows that differ are deleted from or inserted into the
+ * matches join table. A chunk whose refresh fails is marked again and retried after a delay that doubles with
+ * every consecutive failure.
+ */
+@Component
+public class HobbyMatchMaintainer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HobbyMatchMaintainer.class);
+
+    static final String TEST_COLUMNS = "t.location, t.category_one, t.category_two, t.category_three, "
+            + "t.category_four, t.category_five, t.category_six, t.category_seven";
+    private static final String CLIENTS_FOR_KEY = "SELECT c.id FROM app_clients c "
+            + "JOIN test_results t ON t.id = c.test_results_id WHERE t.location = ? AND ? IN (t.category_one, "
+            + "t.category_two, t.category_three, t.category_four, t.category_five, t.category_six, t.category_seven)";
+    private static final String CLIENTS_WITH_MATCH =
+            "SELECT app_client_id FROM app_clients_hobby_matches WHERE hobby_matches_id = ?";
+    private static final String DELETE_MATCH =
+            "DELETE FROM app_clients_hobby_matches WHERE app_client_id = ? AND hobby_matches_id = ?";
+    private static final String INSERT_MATCH =
+            "INSERT INTO app_clients_hobby_matches (app_client_id, hobby_matches_id) VALUES (?, ?)";
+
+    private final HobbyMatchIndex hobbyMatchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedVersions feedVersions;
+    private final Set<Long> dirtyClients = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hobby-match-maintainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${hobbie.matching.max-matches:10}")
+    private int maxMatches = 10;
+
+    @Value("${hobbie.matching.refresh-delay-ms:200}")
+    private long refreshDelayMillis = 200;
+
+    @Value("${hobbie.matching.refresh-chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${hobbie.matching.retry-delay-ms:1000}")
+    private long retryDelayMillis = 1000;
+
+    @Value("${hobbie.matching.max-retry-delay-ms:60000}")
+    private long maxRetryDelayMillis = 60000;
+
+    /**
+     * Consecutive failed refreshes, only read and written on the executor thread.
+     */
+    private int failures;
+
+    @Autowired
+    public HobbyMatchMaintainer(HobbyMatchIndex hobbyMatchIndex, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, FeedVersions feedVersions) {
+        this.hobbyMatchIndex = hobbyMatchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.feedVersions = feedVersions;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Schedules a refresh of the clients affected by a created or updated hobby, once the current transaction
+     * commits.
+     */
+    public void hobbyChanged(Hobby hobby) {
+        if (hobby.getId() == null || hobby.getLocation() == null || hobby.getCategory() == null) {
+            return;
+        }
+        long hobbyId = hobby.getId();
+        LocationEnum location = hobby.getLocation().getName();
+        CategoryNameEnum category = hobby.getCategory().getName();
+        Transactions.afterCommit(() -> this.executor.execute(() -> {
+            try {
+                Set<Long> clients = new HashSet<>(this.jdbcTemplate.queryForList(
+                        CLIENTS_FOR_KEY, Long.class, location.name(), category.name()));
+                clients.addAll(this.jdbcTemplate.queryForList(CLIENTS_WITH_MATCH, Long.class, hobbyId));
+                markDirty(clients);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not find the clients affected by hobby {}", hobbyId, e);
+            }
+        }));
+    }
+
+    /**
+     * Removes a deleted hobby from all client matches within the current transaction, and schedules a refresh
+     * of the affected clients once it commits so that their freed match slots are filled again.
+     */
+    public void hobbyDeleted(long hobbyId) {
+        hobbiesDeleted(Collections.singletonList(hobbyId));
+    }
+
+    /**
+     * Same as {@link #hobbyDeleted(long)} for several hobbies at once.
+     */
+    public void hobbiesDeleted(Collection<Long> hobbyIds) {
+        if (hobbyIds.isEmpty()) {
+            return;
+        }
+        String in = placeholders(hobbyIds);
+        Object[] ids = hobbyIds.toArray();
+        List<Long> clients = this.jdbcTemplate.queryForList("SELECT DISTINCT app_client_id "
+                + "FROM app_clients_hobby_matches WHERE hobby_matches_id IN (" + in + ")", Long.class, ids);
+        if (clients.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.update("DELETE FROM app_clients_hobby_matches WHERE hobby_matches_id IN (" + in + ")", ids);
+        Transactions.afterCommit(() -> markDirty(clients));
+    }
+
+    /**
+     * Recomputes the stored matches of the given clients now, on the calling thread.
+     *
+     * @return the number of match rows inserted or deleted
+     */
+    public int refresh(Collection<Long> clientIds) {
+        if (clientIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Test> tests = new HashMap<>();
+        this.jdbcTemplate.query("SELECT c.id, " + TEST_COLUMNS + " FROM app_clients c "
+                + "JOIN test_results t ON t.id = c.test_results_id WHERE c.id IN (" + placeholders(clientIds) + ")",
+                rs -> {
+                    tests.put(rs.getLong(1), toTest(rs));
+                }, clientIds.toArray());
+        return apply(tests);
+    }
+
+    /**
+     * Recomputes the stored matches of a client for its new test results now, on the calling thread.
+     *
+     * @return the number of match rows inserted or deleted
+     */
+    public int refresh(long clientId, Test results) {
+        return apply(Collections.singletonMap(clientId, results));
+    }
+
+    /**
+     * Replaces the stored matches of clients with the matches for their test results, writing only the rows
+     * that differ, and bumps the feed version of the clients whose matches changed.
+     *
+     * @param tests the test results by client id
+     * @return the number of match rows inserted or deleted
+     */
+    int apply(Map<Long, Test> tests) {
+        if (tests.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Set<Long>> current = new HashMap<>();
+        this.jdbcTemplate.query("SELECT app_client_id, hobby_matches_id FROM app_clients_hobby_matches "
+                + "WHERE app_client_id IN (" + placeholders(tests.keySet()) + ")",
+                rs -> {
+                    current.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getLong(2));
+                }, tests.keySet().toArray());
+
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        Set<Long> changedClients = new HashSet<>();
+        for (Map.Entry<Long, Test> entry : tests.entrySet()) {
+            Long clientId = entry.getKey();
+            Set<Long> existing = current.getOrDefault(clientId, Collections.emptySet());
+            Set<Long> wanted = new HashSet<>();
+            for (long hobbyId : this.hobbyMatchIndex.match(entry.getValue(), this.maxMatches)) {
+                wanted.add(hobbyId);
+                if (!existing.contains(hobbyId)) {
+                    inserts.add(new Object[]{clientId, hobbyId});
+                    changedClients.add(clientId);
+                }
+            }
+            for (Long hobbyId : existing) {
+                if (!wanted.contains(hobbyId)) {
+                    deletes.add(new Object[]{clientId, hobbyId});
+                    changedClients.add(clientId);
+                }
+            }
+        }
+        if (!deletes.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(DELETE_MATCH, deletes);
+        }
+        if (!inserts.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_MATCH, inserts);
+        }
+        this.feedVersions.usersChanged(changedClients);
+        return deletes.size() + inserts.size();
+    }
+
+    public int getPendingClients() {
+        return this.dirtyClients.size();
+    }
+
+    private void markDirty(Collection<Long> clients) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        this.dirtyClients.addAll(clients);
+        scheduleDrain(this.refreshDelayMillis);
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        this.scheduled.set(false);
+        while (!this.dirtyClients.isEmpty()) {
+            List<Long> chunk = new ArrayList<>(this.chunkSize);
+            Iterator<Long> iterator = this.dirtyClients.iterator();
+            while (iterator.hasNext() && chunk.size() < this.chunkSize) {
+                chunk.add(iterator.next());
+                iterator.remove();
+            }
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> refresh(chunk));
+                this.failures = 0;
+            } catch (RuntimeException e) {
+                this.dirtyClients.addAll(chunk);
+                long delay = Math.min(this.maxRetryDelayMillis, this.retryDelayMillis << Math.min(this.failures, 20));
+                this.failures++;
+                LOGGER.warn("Could not refresh the hobby matches of {} clients, retrying in {} ms",
+                        chunk.size(), delay, e);
+                scheduleDrain(delay);
+                return;
+            }
+        }
+    }
+
+    static Test toTest(ResultSet rs) throws SQLException {
+        Test test = new Test();
+        test.setLocation(LocationEnum.valueOf(rs.getString("location")));
+        test.setCategoryOne(category(rs.getString("category_one")));
+        test.setCategoryTwo(category(rs.getString("category_two")));
+        test.setCategoryThree(category(rs.getString("category_three")));
+        test.setCategoryFour(category(rs.getString("category_four")));
+        test.setCategoryFive(category(rs.getString("category_five")));
+        test.setCategorySix(category(rs.getString("category_six")));
+        test.setCategorySeven(category(rs.getString("category_seven")));
+        return test;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+    private static CategoryNameEnum category(String name) {
+        return name == null ? null : CategoryNameEnum.valueOf(name);
+    }
+}
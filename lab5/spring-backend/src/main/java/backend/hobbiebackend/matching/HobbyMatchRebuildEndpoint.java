@@ -0,0 +1,37 @@
+package backend.hobbiebackend.matching;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint that shows the progress of the hobby match rebuild and starts it, restricted to admins.
+ */
+@Component
+@Endpoint(id = "matchrebuild")
+public class HobbyMatchRebuildEndpoint {
+    private final HobbyMatchRebuildJob hobbyMatchRebuildJob;
+
+    @Autowired
+    public HobbyMatchRebuildEndpoint(HobbyMatchRebuildJob hobbyMatchRebuildJob) {
+        this.hobbyMatchRebuildJob = hobbyMatchRebuildJob;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return this.hobbyMatchRebuildJob.getProgress();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable Boolean restart) {
+        boolean started = this.hobbyMatchRebuildJob.start(Boolean.TRUE.equals(restart));
+        Map<String, Object> progress = this.hobbyMatchRebuildJob.getProgress();
+        progress.put("started", started);
+        return progress;
+    }
+}
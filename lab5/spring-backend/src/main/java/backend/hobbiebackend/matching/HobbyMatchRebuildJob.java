@@ -0,0 +1,271 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.model.entities.MatchRebuildPartition;
+import backend.hobbiebackend.model.entities.Test;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.MatchRebuildPartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recomputes the stored hobby matches of all clients, for example after the matching rules changed or hobbies
+ * were imported in bulk.
+ * <p>
+ * Clients are partitioned by the location of their test results and, within a location, by ranges of client
+ * ids. Partitions are processed in parallel; each one reads its clients with a forward-only cursor and writes
+ * the differing match rows chunk by chunk with JDBC batches. The last client id of every chunk is stored in
+ * {@code match_rebuild_partitions} in the same transaction as the chunk's rows, so an interrupted rebuild
+ * continues where it stopped when it is started again or when the application restarts.
+ * <p>
+ * Partitions are planned once, from the test locations at the start of a rebuild. A client who retakes the test
+ * with another location while the rebuild runs may fall outside every partition, or be processed twice. Both are
+ * harmless, because saving test results refreshes that client's matches on the spot through
+ * {@link HobbyMatchMaintainer#refresh(long, Test)}.
+ */
+@Component
+public class HobbyMatchRebuildJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HobbyMatchRebuildJob.class);
+
+    private static final String PLAN = "SELECT t.location, MIN(c.id), MAX(c.id), COUNT(*) FROM app_clients c "
+            + "JOIN test_results t ON t.id = c.test_results_id WHERE t.location IS NOT NULL GROUP BY t.location";
+    private static final String CLIENTS = "SELECT c.id, " + HobbyMatchMaintainer.TEST_COLUMNS + " FROM app_clients c "
+            + "JOIN test_results t ON t.id = c.test_results_id "
+            + "WHERE t.location = ? AND c.id > ? AND c.id <= ? ORDER BY c.id";
+    private static final String CHECKPOINT = "UPDATE match_rebuild_partitions SET checkpoint_client_id = ?, "
+            + "processed_clients = processed_clients + ?, changed_rows = changed_rows + ? WHERE id = ?";
+    private static final String FINISH = "UPDATE match_rebuild_partitions SET finished = TRUE WHERE id = ?";
+    private static final int CHUNK_ATTEMPTS = 3;
+
+    private final HobbyMatchMaintainer hobbyMatchMaintainer;
+    private final MatchRebuildPartitionRepository partitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter processedCounter;
+    private final Counter changedCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedClients = new AtomicLong();
+    private volatile boolean stopping;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile long totalClients;
+    private volatile String lastError;
+
+    @Value("${hobbie.matching.rebuild.threads:3}")
+    private int threads = 3;
+
+    @Value("${hobbie.matching.rebuild.ranges-per-location:8}")
+    private int rangesPerLocation = 8;
+
+    @Value("${hobbie.matching.rebuild.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${hobbie.matching.rebuild.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${hobbie.matching.rebuild.resume-on-startup:true}")
+    private boolean resumeOnStartup = true;
+
+    @Autowired
+    public HobbyMatchRebuildJob(HobbyMatchMaintainer hobbyMatchMaintainer,
+                                MatchRebuildPartitionRepository partitionRepository, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.hobbyMatchMaintainer = hobbyMatchMaintainer;
+        this.partitionRepository = partitionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.processedCounter = meterRegistry.counter("hobbie.matching.rebuild.clients");
+        this.changedCounter = meterRegistry.counter("hobbie.matching.rebuild.rows");
+        Gauge.builder("hobbie.matching.rebuild.running", this.running, running -> running.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (this.resumeOnStartup && !this.partitionRepository.findAllByFinishedFalse().isEmpty()) {
+            LOGGER.info("Resuming the unfinished hobby match rebuild");
+            start(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.stopping = true;
+    }
+
+    /**
+     * Starts rebuilding the stored matches of all clients in the background.
+     *
+     * @param restart whether to discard the progress of an unfinished rebuild instead of continuing it
+     * @return false if a rebuild is already running
+     */
+    public boolean start(boolean restart) {
+        if (!this.running.compareAndSet(false, true)) {
+            return false;
+        }
+        List<MatchRebuildPartition> partitions;
+        try {
+            partitions = restart ? Collections.emptyList() : this.partitionRepository.findAllByFinishedFalse();
+            if (partitions.isEmpty()) {
+                partitions = this.transactionTemplate.execute(status -> plan());
+            }
+            Long clients = this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_clients c "
+                    + "JOIN test_results t ON t.id = c.test_results_id WHERE t.location IS NOT NULL", Long.class);
+            this.totalClients = clients == null ? 0 : clients;
+        } catch (RuntimeException e) {
+            this.running.set(false);
+            throw e;
+        }
+        this.processedClients.set(0);
+        this.lastError = null;
+        this.startedAt = System.currentTimeMillis();
+        this.finishedAt = 0;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "hobby-match-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<?>[] tasks = partitions.stream()
+                .map(partition -> CompletableFuture.runAsync(() -> rebuild(partition), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((result, error) -> {
+            executor.shutdown();
+            this.finishedAt = System.currentTimeMillis();
+            this.running.set(false);
+            LOGGER.info("Hobby match rebuild {} after {} ms, {} clients processed",
+                    this.lastError == null ? "finished" : "stopped", this.finishedAt - this.startedAt,
+                    this.processedClients.get());
+        });
+        LOGGER.info("Rebuilding the hobby matches of {} clients in {} partitions", this.totalClients, partitions.size());
+        return true;
+    }
+
+    public Map<String, Object> getProgress() {
+        long processed = 0;
+        long changed = 0;
+        int finished = 0;
+        List<MatchRebuildPartition> partitions = this.partitionRepository.findAll();
+        for (MatchRebuildPartition partition : partitions) {
+            processed += partition.getProcessedClients();
+            changed += partition.getChangedRows();
+            finished += partition.isFinished() ? 1 : 0;
+        }
+        long end = this.running.get() ? System.currentTimeMillis() : this.finishedAt;
+        long elapsed = this.startedAt == 0 ? 0 : end - this.startedAt;
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", this.running.get());
+        progress.put("partitions", partitions.size());
+        progress.put("finishedPartitions", finished);
+        progress.put("totalClients", this.totalClients);
+        progress.put("processedClients", processed);
+        progress.put("changedRows", changed);
+        progress.put("elapsedSeconds", elapsed / 1000.0);
+        progress.put("clientsPerSecond", elapsed > 0 ? this.processedClients.get() * 1000.0 / elapsed : 0.0);
+        progress.put("lastError", this.lastError);
+        return progress;
+    }
+
+    private List<MatchRebuildPartition> plan() {
+        this.partitionRepository.deleteAllInBatch();
+        List<MatchRebuildPartition> partitions = new ArrayList<>();
+        this.jdbcTemplate.query(PLAN, rs -> {
+            LocationEnum location = LocationEnum.valueOf(rs.getString(1));
+            long min = rs.getLong(2);
+            long max = rs.getLong(3);
+            long ranges = Math.max(1, Math.min(this.rangesPerLocation, rs.getLong(4) / this.chunkSize));
+            long width = (max - min) / ranges + 1;
+            for (long from = min - 1; from < max; from += width) {
+                partitions.add(new MatchRebuildPartition(location, from, Math.min(max, from + width)));
+            }
+        });
+        return this.partitionRepository.saveAll(partitions);
+    }
+
+    private void rebuild(MatchRebuildPartition partition) {
+        try {
+            Map<Long, Test> chunk = new HashMap<>();
+            this.jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        CLIENTS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(this.fetchSize);
+                statement.setString(1, partition.getLocation().name());
+                statement.setLong(2, partition.getCheckpointClientId());
+                statement.setLong(3, partition.getToClientId());
+                return statement;
+            }, rs -> {
+                chunk.put(rs.getLong(1), HobbyMatchMaintainer.toTest(rs));
+                if (chunk.size() >= this.chunkSize) {
+                    write(partition, chunk);
+                }
+            });
+            write(partition, chunk);
+            this.jdbcTemplate.update(FINISH, partition.getId());
+        } catch (RuntimeException e) {
+            this.lastError = e.getMessage();
+            LOGGER.warn("Could not rebuild the hobby matches of partition {} ({})",
+                    partition.getId(), partition.getLocation(), e);
+        }
+    }
+
+    private void write(MatchRebuildPartition partition, Map<Long, Test> chunk) {
+        if (this.stopping) {
+            throw new CancellationException("The hobby match rebuild was stopped");
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long checkpoint = Collections.max(chunk.keySet());
+        Integer changed = null;
+        for (int attempt = 1; changed == null; attempt++) {
+            try {
+                changed = this.transactionTemplate.execute(status -> {
+                    int rows = this.hobbyMatchMaintainer.apply(chunk);
+                    this.jdbcTemplate.update(CHECKPOINT, checkpoint, chunk.size(), rows, partition.getId());
+                    return rows;
+                });
+            } catch (DuplicateKeyException | ConcurrencyFailureException e) {
+                // the same clients were refreshed concurrently after a hobby change
+                if (attempt == CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+        partition.setCheckpointClientId(checkpoint);
+        this.processedClients.addAndGet(chunk.size());
+        this.processedCounter.increment(chunk.size());
+        this.changedCounter.increment(changed);
+        chunk.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package backend.hobbiebackend.model.dto;
+
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * The fields of a hobby shown on a card in the hobby feeds; the full hobby is loaded only on its details page.
+ */
+public class HobbyCardDto {
+    private Long id;
+    private String name;
+    private String slogan;
+    private BigDecimal price;
+    private String profileImgUrl;
+    private CategoryNameEnum category;
+    private LocationEnum location;
+
+    public HobbyCardDto() {
+    }
+
+    public HobbyCardDto(Long id, String name, String slogan, BigDecimal price, String profileImgUrl,
+                        CategoryNameEnum category, LocationEnum location) {
+        this.id = id;
+        this.name = name;
+        this.slogan = slogan;
+        this.price = price;
+        this.profileImgUrl = profileImgUrl;
+        this.category = category;
+        this.location = location;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSlogan() {
+        return slogan;
+    }
+
+    public void setSlogan(String slogan) {
+        this.slogan = slogan;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getProfileImgUrl() {
+        return profileImgUrl;
+    }
+
+    public void setProfileImgUrl(String profileImgUrl) {
+        this.profileImgUrl = profileImgUrl;
+    }
+
+    public CategoryNameEnum getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoryNameEnum category) {
+        this.category = category;
+    }
+
+    public LocationEnum getLocation() {
+        return location;
+    }
+
+    public void setLocation(LocationEnum location) {
+        this.location = location;
+    }
+}
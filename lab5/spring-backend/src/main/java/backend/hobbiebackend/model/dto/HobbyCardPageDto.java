@@ -0,0 +1,39 @@
+package backend.hobbiebackend.model.dto;
+
+import java.util.List;
+
+/**
+ * A page of hobby cards and the cursor of the next page: the id of the last card for the feeds, which are newest
+ * first, or the position of the next result for searches.
+ */
+public class HobbyCardPageDto {
+    private List<HobbyCardDto> cards;
+    private Long nextCursor;
+
+    public HobbyCardPageDto() {
+    }
+
+    public HobbyCardPageDto(List<HobbyCardDto> cards, Long nextCursor) {
+        this.cards = cards;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<HobbyCardDto> getCards() {
+        return cards;
+    }
+
+    public void setCards(List<HobbyCardDto> cards) {
+        this.cards = cards;
+    }
+
+    /**
+     * @return the id of the last card, to be passed as the cursor of the next page, or null on the last page
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
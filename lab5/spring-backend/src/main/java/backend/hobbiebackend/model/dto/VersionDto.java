@@ -0,0 +1,36 @@
+package backend.hobbiebackend.model.dto;
+
+import java.time.Instant;
+
+/**
+ * The version and the time of the last change of a resource, used to answer conditional requests without
+ * loading the resource.
+ */
+public class VersionDto {
+    private long version;
+    private Instant updatedAt;
+
+    public VersionDto() {
+    }
+
+    public VersionDto(long version, Instant updatedAt) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,10 +1,6 @@
 package backend.hobbiebackend.model.entities;
 
 import backend.hobbiebackend.model.entities.enums.GenderEnum;
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
-import org.hibernate.annotations.LazyCollection;
-import org.hibernate.annotations.LazyCollectionOption;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -13,6 +9,14 @@ import java.util.Set;
 
 @Entity
 @Table(name = "app_clients")
+@NamedEntityGraph(name = "AppClient.details",
+        attributeNodes = {
+                @NamedAttributeNode("roles"),
+                @NamedAttributeNode("testResults"),
+                @NamedAttributeNode(value = "hobby_matches", subgraph = "hobby")
+        },
+        subgraphs = @NamedSubgraph(name = "hobby",
+                attributeNodes = {@NamedAttributeNode("category"), @NamedAttributeNode("location")}))
 public class AppClient extends UserEntity implements Serializable {
     private String fullName;
     private GenderEnum gender;
@@ -48,7 +52,10 @@ public class AppClient extends UserEntity implements Serializable {
         this.gender = gender;
     }
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
+    @JoinTable(name = "app_clients_hobby_matches",
+            joinColumns = @JoinColumn(name = "app_client_id"),
+            inverseJoinColumns = @JoinColumn(name = "hobby_matches_id"))
     public Set<Hobby> getHobby_matches() {
         return hobby_matches;
     }
@@ -57,7 +64,7 @@ public class AppClient extends UserEntity implements Serializable {
         this.hobby_matches = hobby_matches;
     }
 
-    @OneToOne(cascade = CascadeType.REMOVE)
+    @OneToOne(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY)
     public Test getTestResults() {
         return testResults;
     }
@@ -67,7 +74,10 @@ public class AppClient extends UserEntity implements Serializable {
     }
 
     @ManyToMany
-    @LazyCollection(LazyCollectionOption.FALSE)
+    @JoinTable(name = "app_clients_saved_hobbies",
+            joinColumns = @JoinColumn(name = "app_client_id"),
+            inverseJoinColumns = @JoinColumn(name = "saved_hobbies_id"),
+            indexes = @Index(name = "idx_saved_hobbies_client_hobby", columnList = "app_client_id, saved_hobbies_id"))
     public List<Hobby> getSaved_hobbies() {
         return saved_hobbies;
     }
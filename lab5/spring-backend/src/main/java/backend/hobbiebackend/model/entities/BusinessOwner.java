@@ -1,14 +1,18 @@
 package backend.hobbiebackend.model.entities;
 
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
-
 import javax.persistence.*;
 import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "business_owners")
+@NamedEntityGraph(name = "BusinessOwner.details",
+        attributeNodes = {
+                @NamedAttributeNode("roles"),
+                @NamedAttributeNode(value = "hobby_offers", subgraph = "hobby")
+        },
+        subgraphs = @NamedSubgraph(name = "hobby",
+                attributeNodes = {@NamedAttributeNode("category"), @NamedAttributeNode("location")}))
 public class BusinessOwner extends UserEntity {
     private String businessName;
     private String address;
@@ -41,7 +45,10 @@ public class BusinessOwner extends UserEntity {
         this.address = address;
     }
 
-    @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.REMOVE)
+    @JoinTable(name = "business_owners_hobby_offers",
+            joinColumns = @JoinColumn(name = "business_owner_id"),
+            inverseJoinColumns = @JoinColumn(name = "hobby_offers_id"))
     public Set<Hobby> getHobby_offers() {
         return hobby_offers;
     }
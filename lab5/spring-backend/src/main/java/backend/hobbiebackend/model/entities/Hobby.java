@@ -1,10 +1,17 @@
 package backend.hobbiebackend.model.entities;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
-@Table(name = "hobbies")
+@DynamicUpdate
+@Table(name = "hobbies", indexes = @Index(name = "idx_hobbies_creator_id", columnList = "creator, id"))
+@NamedEntityGraph(name = "Hobby.references",
+        attributeNodes = {@NamedAttributeNode("category"), @NamedAttributeNode("location")})
 public class Hobby extends BaseEntity {
     private String name;
     private String slogan;
@@ -23,6 +30,8 @@ public class Hobby extends BaseEntity {
     private String galleryImg2_id;
     private String galleryImg3_id;
     private String contactInfo;
+    private long version;
+    private Instant updatedAt;
 
     public Hobby() {
     }
@@ -90,7 +99,7 @@ public class Hobby extends BaseEntity {
         this.description = description;
     }
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     public Category getCategory() {
         return category;
     }
@@ -117,7 +126,7 @@ public class Hobby extends BaseEntity {
         this.creator = creator;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     public Location getLocation() {
         return location;
     }
@@ -180,4 +189,24 @@ public class Hobby extends BaseEntity {
     public void setContactInfo(String contactInfo) {
         this.contactInfo = contactInfo;
     }
+
+    @Version
+    @Column(nullable = false)
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
@@ -0,0 +1,67 @@
+package backend.hobbiebackend.model.entities;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "image_purges")
+public class ImagePurge extends BaseEntity {
+    private String imageId;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private boolean deadLettered;
+    private String lastError;
+
+    public ImagePurge() {
+    }
+
+    public ImagePurge(String imageId, Instant nextAttemptAt) {
+        this.imageId = imageId;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    @Column(name = "image_id", nullable = false)
+    public String getImageId() {
+        return imageId;
+    }
+
+    public void setImageId(String imageId) {
+        this.imageId = imageId;
+    }
+
+    @Column(nullable = false)
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    @Column(name = "dead_lettered", nullable = false)
+    public boolean isDeadLettered() {
+        return deadLettered;
+    }
+
+    public void setDeadLettered(boolean deadLettered) {
+        this.deadLettered = deadLettered;
+    }
+
+    @Column(name = "last_error", length = 1000)
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,91 @@
+package backend.hobbiebackend.model.entities;
+
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "match_rebuild_partitions")
+public class MatchRebuildPartition extends BaseEntity {
+    private LocationEnum location;
+    private long fromClientId;
+    private long toClientId;
+    private long checkpointClientId;
+    private long processedClients;
+    private long changedRows;
+    private boolean finished;
+
+    public MatchRebuildPartition() {
+    }
+
+    public MatchRebuildPartition(LocationEnum location, long fromClientId, long toClientId) {
+        this.location = location;
+        this.fromClientId = fromClientId;
+        this.toClientId = toClientId;
+        this.checkpointClientId = fromClientId;
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    public LocationEnum getLocation() {
+        return location;
+    }
+
+    public void setLocation(LocationEnum location) {
+        this.location = location;
+    }
+
+    @Column(name = "from_client_id", nullable = false)
+    public long getFromClientId() {
+        return fromClientId;
+    }
+
+    public void setFromClientId(long fromClientId) {
+        this.fromClientId = fromClientId;
+    }
+
+    @Column(name = "to_client_id", nullable = false)
+    public long getToClientId() {
+        return toClientId;
+    }
+
+    public void setToClientId(long toClientId) {
+        this.toClientId = toClientId;
+    }
+
+    @Column(name = "checkpoint_client_id", nullable = false)
+    public long getCheckpointClientId() {
+        return checkpointClientId;
+    }
+
+    public void setCheckpointClientId(long checkpointClientId) {
+        this.checkpointClientId = checkpointClientId;
+    }
+
+    @Column(name = "processed_clients", nullable = false)
+    public long getProcessedClients() {
+        return processedClients;
+    }
+
+    public void setProcessedClients(long processedClients) {
+        this.processedClients = processedClients;
+    }
+
+    @Column(name = "changed_rows", nullable = false)
+    public long getChangedRows() {
+        return changedRows;
+    }
+
+    public void setChangedRows(long changedRows) {
+        this.changedRows = changedRows;
+    }
+
+    @Column(nullable = false)
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+}
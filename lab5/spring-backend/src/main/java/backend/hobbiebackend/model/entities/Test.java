@@ -6,7 +6,7 @@ import backend.hobbiebackend.model.entities.enums.LocationEnum;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "test_results")
+@Table(name = "test_results", indexes = @Index(name = "idx_test_results_location", columnList = "location"))
 public class Test extends BaseEntity {
     private String username;
     private CategoryNameEnum categoryOne;
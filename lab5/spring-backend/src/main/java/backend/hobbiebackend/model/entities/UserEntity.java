@@ -1,20 +1,26 @@
 package backend.hobbiebackend.model.entities;
 
+import org.hibernate.annotations.Where;
+
 import javax.persistence.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @Table(name = "users")
+@Where(clause = "deleted = false")
 public class UserEntity extends BaseEntity implements Serializable {
 
     private String username;
     private String email;
     private List<UserRoleEntity> roles = new ArrayList<>();
     private String password;
-
+    private boolean deleted;
+    private long feedVersion;
+    private Instant feedUpdatedAt;
 
     public UserEntity(String username, String email, List<UserRoleEntity> roles, String password) {
         this.username = username;
@@ -53,7 +59,10 @@ public class UserEntity extends BaseEntity implements Serializable {
         this.email = email;
     }
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
+    @JoinTable(name = "users_roles",
+            joinColumns = @JoinColumn(name = "user_entity_id"),
+            inverseJoinColumns = @JoinColumn(name = "roles_id"))
     public List<UserRoleEntity> getRoles() {
         return roles;
     }
@@ -62,5 +71,37 @@ public class UserEntity extends BaseEntity implements Serializable {
         this.roles = roles;
     }
 
+    @Column(nullable = false)
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * Incremented whenever the hobbies shown in the user's feeds change; maintained by
+     * {@link backend.hobbiebackend.feed.FeedVersions} only.
+     */
+    @Column(name = "feed_version", insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    public long getFeedVersion() {
+        return feedVersion;
+    }
+
+    public void setFeedVersion(long feedVersion) {
+        this.feedVersion = feedVersion;
+    }
+
+    @Column(name = "feed_updated_at", insertable = false, updatable = false)
+    public Instant getFeedUpdatedAt() {
+        return feedUpdatedAt;
+    }
+
+    public void setFeedUpdatedAt(Instant feedUpdatedAt) {
+        this.feedUpdatedAt = feedUpdatedAt;
+    }
+
 
 }
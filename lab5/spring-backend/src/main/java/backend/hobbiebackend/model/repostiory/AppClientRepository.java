@@ -1,7 +1,11 @@
 package backend.hobbiebackend.model.repostiory;
 
 import backend.hobbiebackend.model.entities.AppClient;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +13,17 @@ import java.util.Optional;
 @Repository
 public interface AppClientRepository extends JpaRepository<AppClient, Long> {
     Optional<AppClient> findByUsername(String username);
+
+    @EntityGraph("AppClient.details")
+    Optional<AppClient> findDetailsByUsername(String username);
+
+    @EntityGraph("AppClient.details")
+    Optional<AppClient> findDetailsById(Long id);
+
+    @Query("select c.id from AppClient c where c.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query(value = "UPDATE app_clients SET test_results_id = :testId WHERE id = :clientId", nativeQuery = true)
+    int setTestResults(@Param("clientId") long clientId, @Param("testId") long testId);
 }
@@ -1,7 +1,10 @@
 package backend.hobbiebackend.model.repostiory;
 
 import backend.hobbiebackend.model.entities.BusinessOwner;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,5 +13,16 @@ import java.util.Optional;
 public interface BusinessOwnerRepository extends JpaRepository<BusinessOwner, Long> {
     Optional<BusinessOwner> findByUsername(String username);
 
+    @EntityGraph("BusinessOwner.details")
+    Optional<BusinessOwner> findDetailsByUsername(String username);
+
+    @EntityGraph("BusinessOwner.details")
+    Optional<BusinessOwner> findDetailsById(Long id);
+
     Optional<BusinessOwner> findByBusinessName(String businessName);
+
+    boolean existsByBusinessName(String businessName);
+
+    @Query("select b.id from BusinessOwner b where b.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
 }
@@ -1,16 +1,75 @@
 package backend.hobbiebackend.model.repostiory;
 
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.VersionDto;
 import backend.hobbiebackend.model.entities.Hobby;
 import backend.hobbiebackend.model.entities.Location;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 @Repository
 public interface HobbyRepository extends JpaRepository<Hobby, Long> {
-    Set<Hobby> findAllByCreator(String creator);
+    @EntityGraph("Hobby.references")
+    Optional<Hobby> findWithReferencesById(Long id);
+
+    @Query("select new backend.hobbiebackend.model.dto.VersionDto(h.version, h.updatedAt) from Hobby h where h.id = :id")
+    Optional<VersionDto> findVersionById(@Param("id") long id);
+
+    String CARD = "select new backend.hobbiebackend.model.dto.HobbyCardDto("
+            + "h.id, h.name, h.slogan, h.price, h.profileImgUrl, c.name, l.name) ";
+
+    @Query(CARD + "from Hobby h left join h.category c left join h.location l "
+            + "where h.creator = :username and h.id < :before order by h.id desc")
+    List<HobbyCardDto> findCardsOfCreator(@Param("username") String username, @Param("before") long before,
+                                          Pageable page);
+
+    @Query(CARD + "from AppClient a join a.hobby_matches h left join h.category c left join h.location l "
+            + "where a.username = :username and h.id < :before order by h.id desc")
+    List<HobbyCardDto> findMatchCardsOfClient(@Param("username") String username, @Param("before") long before,
+                                              Pageable page);
+
+    @Query(CARD + "from AppClient a join a.saved_hobbies h left join h.category c left join h.location l "
+            + "where a.username = :username and h.id < :before order by h.id desc")
+    List<HobbyCardDto> findSavedCardsOfClient(@Param("username") String username, @Param("before") long before,
+                                              Pageable page);
+
+    @Query("select count(h) from AppClient c join c.saved_hobbies h where c.username = :username and h.id = :hobbyId")
+    long countSavedByClient(@Param("username") String username, @Param("hobbyId") long hobbyId);
+
+    @Modifying
+    @Query(value = "INSERT INTO app_clients_saved_hobbies (app_client_id, saved_hobbies_id) "
+            + "SELECT u.id, :hobbyId FROM users u JOIN app_clients c ON c.id = u.id "
+            + "WHERE u.username = :username AND u.deleted = FALSE", nativeQuery = true)
+    int insertSavedByClient(@Param("username") String username, @Param("hobbyId") long hobbyId);
+
+    @Modifying
+    @Query(value = "DELETE FROM app_clients_saved_hobbies WHERE saved_hobbies_id = :hobbyId "
+            + "AND app_client_id = (SELECT id FROM users WHERE username = :username)", nativeQuery = true)
+    int deleteSavedByClient(@Param("username") String username, @Param("hobbyId") long hobbyId);
 
     List<Hobby> findAllByLocation(Location location);
+
+    @Query("select h.id, h.location.name, h.category.name from Hobby h")
+    List<Object[]> findAllMatchKeys();
+
+    @Modifying
+    @Query(value = "DELETE FROM app_clients_saved_hobbies WHERE saved_hobbies_id = :id", nativeQuery = true)
+    int deleteSavedReferences(@Param("id") long id);
+
+    @Modifying
+    @Query(value = "INSERT INTO business_owners_hobby_offers (business_owner_id, hobby_offers_id) "
+            + "VALUES (:ownerId, :hobbyId)", nativeQuery = true)
+    int insertOfferLink(@Param("ownerId") long ownerId, @Param("hobbyId") long hobbyId);
+
+    @Modifying
+    @Query(value = "DELETE FROM business_owners_hobby_offers WHERE hobby_offers_id = :id", nativeQuery = true)
+    int deleteOfferReference(@Param("id") long id);
 }
@@ -0,0 +1,16 @@
+package backend.hobbiebackend.model.repostiory;
+
+import backend.hobbiebackend.model.entities.ImagePurge;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ImagePurgeRepository extends JpaRepository<ImagePurge, Long> {
+    List<ImagePurge> findAllByDeadLetteredFalseAndNextAttemptAtLessThanEqualOrderById(Instant now, Pageable pageable);
+
+    long countByDeadLetteredTrue();
+}
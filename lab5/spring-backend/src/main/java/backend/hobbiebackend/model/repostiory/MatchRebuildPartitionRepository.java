@@ -0,0 +1,12 @@
+package backend.hobbiebackend.model.repostiory;
+
+import backend.hobbiebackend.model.entities.MatchRebuildPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MatchRebuildPartitionRepository extends JpaRepository<MatchRebuildPartition, Long> {
+    List<MatchRebuildPartition> findAllByFinishedFalse();
+}
@@ -2,8 +2,14 @@ package backend.hobbiebackend.model.repostiory;
 
 import backend.hobbiebackend.model.entities.Test;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface TestRepository extends JpaRepository<Test, Long> {
+    @Query("select t.id from AppClient c join c.testResults t where c.id = :clientId")
+    Optional<Long> findIdByClientId(@Param("clientId") long clientId);
 }
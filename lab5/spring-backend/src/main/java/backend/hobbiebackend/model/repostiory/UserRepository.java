@@ -1,14 +1,35 @@
 package backend.hobbiebackend.model.repostiory;
 
 import backend.hobbiebackend.model.entities.UserEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    Optional<UserEntity> findById(Long id);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<UserEntity> findByUsername(String username);
 
+    @EntityGraph(attributePaths = "roles")
     Optional<UserEntity> findByEmail(String email);
+
+    /**
+     * Whether any user has the username or the email, including deleted users that are not purged yet and still
+     * hold both in the unique columns.
+     */
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE username = :username OR email = :email", nativeQuery = true)
+    boolean existsIncludingDeleted(@Param("username") String username, @Param("email") String email);
+
+    @Modifying
+    @Query(value = "UPDATE users SET deleted = TRUE WHERE id = :id", nativeQuery = true)
+    int markDeleted(@Param("id") Long id);
 }
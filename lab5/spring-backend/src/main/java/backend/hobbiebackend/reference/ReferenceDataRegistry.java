@@ -0,0 +1,104 @@
+package backend.hobbiebackend.reference;
+
+import backend.hobbiebackend.handler.NotFoundException;
+import backend.hobbiebackend.model.entities.Category;
+import backend.hobbiebackend.model.entities.Location;
+import backend.hobbiebackend.model.entities.UserRoleEntity;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.entities.enums.UserRoleEnum;
+import backend.hobbiebackend.model.repostiory.CategoryRepository;
+import backend.hobbiebackend.model.repostiory.LocationRepository;
+import backend.hobbiebackend.model.repostiory.UserRoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * In-memory lookup of the category, location and user role rows, which are seeded once and never change
+ * afterwards. The rows are read when the application has started, after {@code DBInit} seeded them, and read
+ * again only when a name is missing, e.g. while the seeding itself looks up the roles it just saved.
+ * <p>
+ * The returned entities are detached. They only carry an id and a name, so they can be referenced from new or
+ * changed hobbies and users without being loaded again.
+ */
+@Component
+public class ReferenceDataRegistry {
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final UserRoleRepository userRoleRepository;
+    private volatile Map<CategoryNameEnum, Category> categories = new EnumMap<>(CategoryNameEnum.class);
+    private volatile Map<LocationEnum, Location> locations = new EnumMap<>(LocationEnum.class);
+    private volatile Map<UserRoleEnum, UserRoleEntity> roles = new EnumMap<>(UserRoleEnum.class);
+
+    @Autowired
+    public ReferenceDataRegistry(CategoryRepository categoryRepository, LocationRepository locationRepository,
+                                 UserRoleRepository userRoleRepository) {
+        this.categoryRepository = categoryRepository;
+        this.locationRepository = locationRepository;
+        this.userRoleRepository = userRoleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        reload();
+    }
+
+    public Category category(CategoryNameEnum name) {
+        Category category = this.categories.get(name);
+        if (category == null) {
+            reload();
+            category = this.categories.get(name);
+            if (category == null) {
+                throw new NotFoundException("Category with this name not found");
+            }
+        }
+        return category;
+    }
+
+    public Location location(LocationEnum name) {
+        Location location = this.locations.get(name);
+        if (location == null) {
+            reload();
+            location = this.locations.get(name);
+            if (location == null) {
+                throw new NotFoundException("Location not found");
+            }
+        }
+        return location;
+    }
+
+    public UserRoleEntity role(UserRoleEnum name) {
+        UserRoleEntity role = this.roles.get(name);
+        if (role == null) {
+            reload();
+            role = this.roles.get(name);
+            if (role == null) {
+                throw new NotFoundException("User role not found. Please seed the roles.");
+            }
+        }
+        return role;
+    }
+
+    public synchronized void reload() {
+        Map<CategoryNameEnum, Category> categories = new EnumMap<>(CategoryNameEnum.class);
+        for (Category category : this.categoryRepository.findAll()) {
+            categories.put(category.getName(), category);
+        }
+        Map<LocationEnum, Location> locations = new EnumMap<>(LocationEnum.class);
+        for (Location location : this.locationRepository.findAll()) {
+            locations.put(location.getName(), location);
+        }
+        Map<UserRoleEnum, UserRoleEntity> roles = new EnumMap<>(UserRoleEnum.class);
+        for (UserRoleEntity role : this.userRoleRepository.findAll()) {
+            roles.put(role.getRole(), role);
+        }
+        this.categories = categories;
+        this.locations = locations;
+        this.roles = roles;
+    }
+}
@@ -0,0 +1,457 @@
+package backend.hobbiebackend.search;
+
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import backend.hobbiebackend.model.dto.HobbySearchDto;
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.utility.Transactions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text index of hobbies for the hobby search, kept in a Lucene index on local disk.
+ * <p>
+ * The name, slogan, intro and description of a hobby are searchable, category and location are exact filters and
+ * the price is a range filter. The fields of a hobby card are stored in the index, so a search is answered
+ * without reading the database. Created, changed and deleted hobbies are written to the index on a background
+ * thread once their transaction commits. Searches see them after the next near-real-time refresh, and the index
+ * is committed to disk periodically and on shutdown. An empty index is filled from the database when the
+ * application starts, and {@link #reindex()} rebuilds it at any time.
+ */
+@Component
+public class HobbySearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HobbySearchIndex.class);
+
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String SLOGAN = "slogan";
+    static final String INTRO = "intro";
+    static final String DESCRIPTION = "description";
+    static final String CATEGORY = "category";
+    static final String LOCATION = "location";
+    static final String PRICE = "price";
+    static final String PRICE_CENTS = "price_cents";
+    static final String PROFILE_IMG_URL = "profileImgUrl";
+
+    private static final Map<String, Float> WEIGHTS = Map.of(NAME, 4f, SLOGAN, 2f, INTRO, 1f, DESCRIPTION, 1f);
+    private static final Sort NEWEST = new Sort(new SortField(ID, SortField.Type.LONG, true));
+    private static final String ALL_HOBBIES = "SELECT h.id, h.name, h.slogan, h.intro, h.description, h.price, "
+            + "h.profile_image_url, c.name, l.name FROM hobbies h "
+            + "LEFT JOIN categories c ON c.id = h.category_id LEFT JOIN locations l ON l.id = h.location_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private final Timer searchTimer;
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hobby-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+    private volatile boolean rebuildIncomplete;
+    private volatile long lastCommitAt;
+    private volatile String lastError;
+
+    @Value("${hobbie.search.refresh-interval-ms:1000}")
+    private long refreshIntervalMillis = 1000;
+
+    @Value("${hobbie.search.commit-interval-ms:60000}")
+    private long commitIntervalMillis = 60000;
+
+    @Value("${hobbie.search.max-results:1000}")
+    private int maxResults = 1000;
+
+    @Value("${hobbie.search.reindex.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * @param indexDir the directory of the index, or an empty string to keep the index in memory
+     */
+    @Autowired
+    public HobbySearchIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                            @Value("${hobbie.search.index-dir:search-index}") String indexDir) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = indexDir.isEmpty() ? new ByteBuffersDirectory() : new MMapDirectory(Paths.get(indexDir));
+        this.writer = new IndexWriter(this.directory, new IndexWriterConfig(this.analyzer));
+        this.searcherManager = new SearcherManager(this.writer, null);
+        this.searchTimer = meterRegistry.timer("hobbie.search.queries");
+        meterRegistry.gauge("hobbie.search.pending", this.pendingChanges);
+        Gauge.builder("hobbie.search.documents", this, index -> index.writer.getDocStats().numDocs)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::refresh, this.refreshIntervalMillis, this.refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        this.executor.scheduleWithFixedDelay(this::commit, this.commitIntervalMillis, this.commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        if (this.writer.getDocStats().numDocs == 0) {
+            reindex();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        this.stopping = true;
+        this.executor.shutdown();
+        this.executor.awaitTermination(10, TimeUnit.SECONDS);
+        this.searcherManager.close();
+        if (this.rebuildIncomplete) {
+            this.writer.rollback();
+        } else {
+            this.writer.close();
+        }
+        this.directory.close();
+    }
+
+    /**
+     * Writes a created or changed hobby to the index once the current transaction commits.
+     */
+    public void hobbyChanged(Hobby hobby) {
+        if (hobby.getId() == null) {
+            return;
+        }
+        Term id = idTerm(hobby.getId());
+        Document document = toDocument(hobby.getId(), hobby.getName(), hobby.getSlogan(), hobby.getIntro(),
+                hobby.getDescription(), hobby.getPrice(), hobby.getProfileImgUrl(),
+                hobby.getCategory() == null ? null : hobby.getCategory().getName(),
+                hobby.getLocation() == null ? null : hobby.getLocation().getName());
+        Transactions.afterCommit(() -> submit(writer -> writer.updateDocument(id, document)));
+    }
+
+    public void hobbyDeleted(long hobbyId) {
+        hobbiesDeleted(Collections.singletonList(hobbyId));
+    }
+
+    /**
+     * Removes deleted hobbies from the index once the current transaction commits.
+     */
+    public void hobbiesDeleted(Collection<Long> hobbyIds) {
+        if (hobbyIds.isEmpty()) {
+            return;
+        }
+        Term[] ids = hobbyIds.stream().map(HobbySearchIndex::idTerm).toArray(Term[]::new);
+        Transactions.afterCommit(() -> submit(writer -> writer.deleteDocuments(ids)));
+    }
+
+    /**
+     * Finds the hobbies matching the text of a search, best matches first, or all hobbies newest first if the
+     * search has no text, restricted by the search's filters.
+     *
+     * @param offset the number of results to skip, up to {@code hobbie.search.max-results}
+     * @return the cards of the results, with the offset of the next page as cursor
+     */
+    public HobbyCardPageDto search(HobbySearchDto search, long offset, int size) {
+        return this.searchTimer.record(() -> {
+            int from = (int) Math.max(0, Math.min(offset, this.maxResults));
+            int to = Math.min(from + size, this.maxResults);
+            if (from >= to) {
+                return new HobbyCardPageDto(Collections.emptyList(), null);
+            }
+            try {
+                SearcherManager searcherManager = this.searcherManager;
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    Query query = toQuery(search);
+                    TopDocs top = hasText(search.getQuery())
+                            ? searcher.search(query, to + 1)
+                            : searcher.search(query, to + 1, NEWEST);
+                    List<HobbyCardDto> cards = new ArrayList<>(to - from);
+                    for (int i = from; i < Math.min(to, top.scoreDocs.length); i++) {
+                        cards.add(toCard(searcher.doc(top.scoreDocs[i].doc)));
+                    }
+                    Long next = top.scoreDocs.length > to && to < this.maxResults ? (long) to : null;
+                    return new HobbyCardPageDto(cards, next);
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not search hobbies", e);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index from the database in the background. Changes made meanwhile are applied after the
+     * rebuild. Searches and the index on disk keep the previous index until the rebuild has finished, and keep
+     * it if the rebuild fails.
+     *
+     * @return false if a rebuild is already running
+     */
+    public boolean reindex() {
+        if (!this.reindexing.compareAndSet(false, true)) {
+            return false;
+        }
+        this.executor.execute(() -> {
+            try {
+                rebuild();
+                this.lastError = null;
+            } catch (IOException | RuntimeException e) {
+                this.lastError = e.getMessage();
+                LOGGER.warn("Could not rebuild the hobby search index", e);
+            } finally {
+                this.reindexing.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("documents", this.writer.getDocStats().numDocs);
+        status.put("pendingChanges", this.pendingChanges.get());
+        status.put("reindexing", this.reindexing.get());
+        status.put("lastCommit", this.lastCommitAt == 0 ? null : Instant.ofEpochMilli(this.lastCommitAt).toString());
+        status.put("lastError", this.lastError);
+        return status;
+    }
+
+    /**
+     * Waits until the changes submitted so far are applied and visible to searches.
+     */
+    void awaitChanges() throws Exception {
+        this.executor.submit(() -> {
+            this.searcherManager.maybeRefreshBlocking();
+            return null;
+        }).get();
+    }
+
+    Query toQuery(HobbySearchDto search) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (hasText(search.getQuery())) {
+            SimpleQueryParser parser = new SimpleQueryParser(this.analyzer, WEIGHTS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            Query text = parser.parse(search.getQuery());
+            query.add(text == null ? new MatchNoDocsQuery() : text, BooleanClause.Occur.MUST);
+        } else {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (search.getCategory() != null) {
+            query.add(new TermQuery(new Term(CATEGORY, search.getCategory().name())), BooleanClause.Occur.FILTER);
+        }
+        if (search.getLocation() != null) {
+            query.add(new TermQuery(new Term(LOCATION, search.getLocation().name())), BooleanClause.Occur.FILTER);
+        }
+        if (search.getMinPrice() != null || search.getMaxPrice() != null) {
+            long min = search.getMinPrice() == null ? Long.MIN_VALUE : cents(search.getMinPrice());
+            long max = search.getMaxPrice() == null ? Long.MAX_VALUE : cents(search.getMaxPrice());
+            query.add(LongPoint.newRangeQuery(PRICE_CENTS, min, max), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private void rebuild() throws IOException {
+        long started = System.currentTimeMillis();
+        AtomicLong hobbies = new AtomicLong();
+        commit();
+        this.rebuildIncomplete = true;
+        try {
+            this.writer.deleteAll();
+            this.jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        ALL_HOBBIES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(this.fetchSize);
+                return statement;
+            }, rs -> {
+                if (this.stopping) {
+                    throw new IllegalStateException("The hobby search index rebuild was stopped");
+                }
+                String category = rs.getString(8);
+                String location = rs.getString(9);
+                try {
+                    this.writer.addDocument(toDocument(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5), rs.getBigDecimal(6), rs.getString(7),
+                            category == null ? null : CategoryNameEnum.valueOf(category),
+                            location == null ? null : LocationEnum.valueOf(location)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                hobbies.incrementAndGet();
+            });
+        } catch (IOException | RuntimeException e) {
+            rollback();
+            throw e;
+        } finally {
+            this.rebuildIncomplete = false;
+        }
+        commit();
+        this.searcherManager.maybeRefreshBlocking();
+        LOGGER.info("Indexed {} hobbies for search in {} ms", hobbies.get(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Discards the uncommitted changes of a failed rebuild, which returns the index to the commit made before the
+     * rebuild. Rolling back closes the writer, so a new writer and searcher manager take its place.
+     */
+    private void rollback() throws IOException {
+        this.writer.rollback();
+        this.writer = new IndexWriter(this.directory, new IndexWriterConfig(this.analyzer));
+        SearcherManager previous = this.searcherManager;
+        this.searcherManager = new SearcherManager(this.writer, null);
+        previous.close();
+    }
+
+    private void submit(IndexChange change) {
+        this.pendingChanges.incrementAndGet();
+        this.executor.execute(() -> {
+            try {
+                change.apply(this.writer);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Could not update the hobby search index", e);
+            } finally {
+                this.pendingChanges.decrementAndGet();
+            }
+        });
+    }
+
+    private void refresh() {
+        if (this.rebuildIncomplete) {
+            return;
+        }
+        try {
+            this.searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not refresh the hobby search index", e);
+        }
+    }
+
+    private void commit() {
+        if (this.rebuildIncomplete) {
+            return;
+        }
+        try {
+            if (this.writer.hasUncommittedChanges()) {
+                this.writer.commit();
+                this.lastCommitAt = System.currentTimeMillis();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not commit the hobby search index", e);
+        }
+    }
+
+    static Document toDocument(long id, String name, String slogan, String intro, String description,
+                               BigDecimal price, String profileImgUrl, CategoryNameEnum category,
+                               LocationEnum location) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(id), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID, id));
+        if (name != null) {
+            document.add(new TextField(NAME, name, Field.Store.YES));
+        }
+        if (slogan != null) {
+            document.add(new TextField(SLOGAN, slogan, Field.Store.YES));
+        }
+        if (intro != null) {
+            document.add(new TextField(INTRO, intro, Field.Store.NO));
+        }
+        if (description != null) {
+            document.add(new TextField(DESCRIPTION, description, Field.Store.NO));
+        }
+        if (category != null) {
+            document.add(new StringField(CATEGORY, category.name(), Field.Store.YES));
+        }
+        if (location != null) {
+            document.add(new StringField(LOCATION, location.name(), Field.Store.YES));
+        }
+        if (price != null) {
+            document.add(new LongPoint(PRICE_CENTS, cents(price)));
+            document.add(new StoredField(PRICE, price.toPlainString()));
+        }
+        if (profileImgUrl != null) {
+            document.add(new StoredField(PROFILE_IMG_URL, profileImgUrl));
+        }
+        return document;
+    }
+
+    private static HobbyCardDto toCard(Document document) {
+        String price = document.get(PRICE);
+        String category = document.get(CATEGORY);
+        String location = document.get(LOCATION);
+        return new HobbyCardDto(Long.valueOf(document.get(ID)), document.get(NAME), document.get(SLOGAN),
+                price == null ? null : new BigDecimal(price), document.get(PROFILE_IMG_URL),
+                category == null ? null : CategoryNameEnum.valueOf(category),
+                location == null ? null : LocationEnum.valueOf(location));
+    }
+
+    private static Term idTerm(long hobbyId) {
+        return new Term(ID, Long.toString(hobbyId));
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && !text.isBlank();
+    }
+
+    private interface IndexChange {
+        void apply(IndexWriter writer) throws IOException;
+    }
+}
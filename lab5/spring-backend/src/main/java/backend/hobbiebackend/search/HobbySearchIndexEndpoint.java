@@ -0,0 +1,36 @@
+package backend.hobbiebackend.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint that shows the state of the hobby search index and rebuilds it, restricted to admins.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class HobbySearchIndexEndpoint {
+    private final HobbySearchIndex hobbySearchIndex;
+
+    @Autowired
+    public HobbySearchIndexEndpoint(HobbySearchIndex hobbySearchIndex) {
+        this.hobbySearchIndex = hobbySearchIndex;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return this.hobbySearchIndex.getStatus();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reindex() {
+        boolean started = this.hobbySearchIndex.reindex();
+        Map<String, Object> status = this.hobbySearchIndex.getStatus();
+        status.put("started", started);
+        return status;
+    }
+}
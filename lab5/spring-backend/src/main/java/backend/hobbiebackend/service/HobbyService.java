@@ -1,32 +1,48 @@
 package backend.hobbiebackend.service;
 
-import backend.hobbiebackend.model.entities.AppClient;
+import backend.hobbiebackend.cache.HobbySnapshot;
+import backend.hobbiebackend.cache.SerializedHobby;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import backend.hobbiebackend.model.dto.HobbyInfoUpdateDto;
+import backend.hobbiebackend.model.dto.HobbySearchDto;
+import backend.hobbiebackend.model.dto.VersionDto;
 import backend.hobbiebackend.model.entities.Hobby;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Set;
 
 public interface HobbyService {
     Hobby findHobbieById(Long id);
 
+    /**
+     * @return the version of the hobby, from its cached snapshot if there is one and without loading it otherwise
+     */
+    VersionDto findHobbyVersion(Long id);
+
+    HobbySnapshot findHobbySnapshot(Long id);
+
+    SerializedHobby findSerializedHobby(Long id);
+
+    VersionDto findFeedVersion(String username);
+
     void saveUpdatedHobby(Hobby hobby) throws Exception;
 
-    boolean deleteHobby(long id) throws Exception;
+    Hobby patchHobby(Long id, HobbyInfoUpdateDto changes);
 
-    Set<Hobby> findHobbyMatches(String username);
+    boolean deleteHobby(long id) throws Exception;
 
-    boolean saveHobbyForClient(Hobby hobby, String username);
+    boolean saveHobbyForClient(Long hobbyId, String username);
 
-    boolean removeHobbyForClient(Hobby hobby, String username);
+    boolean removeHobbyForClient(Long hobbyId, String username);
 
     boolean isHobbySaved(Long hobbyId, String username);
 
-    List<Hobby> findSavedHobbies(AppClient appClient);
+    HobbyCardPageDto findSavedHobbies(String username, Long after, Integer size);
+
+    HobbyCardPageDto getAllHobbiesForBusiness(String username, Long after, Integer size);
+
+    HobbyCardPageDto getAllHobbieMatchesForClient(String username, Long after, Integer size);
 
-    Set<Hobby> getAllHobbiesForBusiness(String username);
-    
-    Set<Hobby> getAllHobbieMatchesForClient(String username);
+    HobbyCardPageDto searchHobbies(HobbySearchDto search, Long after, Integer size);
 
     void createHobby(Hobby offer);
 }
@@ -4,7 +4,7 @@ import backend.hobbiebackend.model.dto.AppClientSignUpDto;
 import backend.hobbiebackend.model.dto.BusinessRegisterDto;
 import backend.hobbiebackend.model.entities.AppClient;
 import backend.hobbiebackend.model.entities.BusinessOwner;
-import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Test;
 import backend.hobbiebackend.model.entities.UserEntity;
 
 import java.util.List;
@@ -36,13 +36,19 @@ public interface UserService {
 
     AppClient findAppClientById(Long clientId);
 
-    void findAndRemoveHobbyFromClientsRecords(Hobby hobby);
-    
     boolean businessExists(String businessName);
 
     AppClient findAppClientByUsername(String username);
 
+    AppClient findAppClientDetailsByUsername(String username);
+
+    Long findAppClientIdByUsername(String username);
+
+    void setTestResults(Long clientId, Test results);
+
     BusinessOwner findBusinessByUsername(String username);
+
+    Long findBusinessIdByUsername(String username);
 }
 
 
@@ -1,9 +1,9 @@
 package backend.hobbiebackend.service.impl;
 
-import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.entities.Category;
 import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
 import backend.hobbiebackend.model.repostiory.CategoryRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,26 +11,21 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ReferenceDataRegistry referenceDataRegistry) {
         this.categoryRepository = categoryRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @Override
     public Category findByName(CategoryNameEnum category) {
-        Optional<Category> byName = this.categoryRepository.findByName(category);
-
-        if (byName.isPresent()) {
-            return byName.get();
-        } else {
-            throw new NotFoundException("Category with this name not found");
-        }
+        return this.referenceDataRegistry.category(category);
     }
 
     @Override
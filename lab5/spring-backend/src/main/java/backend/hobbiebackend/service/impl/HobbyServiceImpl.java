@@ -1,17 +1,28 @@
 package backend.hobbiebackend.service.impl;
 
+import backend.hobbiebackend.cache.HobbySnapshot;
+import backend.hobbiebackend.cache.HobbySnapshotCache;
+import backend.hobbiebackend.cache.SerializedHobby;
+import backend.hobbiebackend.cleanup.ImagePurgeOutbox;
+import backend.hobbiebackend.feed.FeedVersions;
 import backend.hobbiebackend.handler.NotFoundException;
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.matching.HobbyMatchMaintainer;
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import backend.hobbiebackend.model.dto.HobbyInfoUpdateDto;
+import backend.hobbiebackend.model.dto.HobbySearchDto;
+import backend.hobbiebackend.model.dto.VersionDto;
 import backend.hobbiebackend.model.entities.*;
-import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
-import backend.hobbiebackend.model.entities.enums.LocationEnum;
 import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import backend.hobbiebackend.search.HobbySearchIndex;
 import backend.hobbiebackend.service.CategoryService;
 import backend.hobbiebackend.service.HobbyService;
 import backend.hobbiebackend.service.LocationService;
 import backend.hobbiebackend.service.UserService;
-import com.cloudinary.Cloudinary;
-import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,20 +36,36 @@ public class HobbyServiceImpl implements HobbyService {
     private final CategoryService categoryService;
     private final UserService userService;
     private final LocationService locationService;
-    private final Cloudinary cloudinary;
+    private final ImagePurgeOutbox imagePurgeOutbox;
+    private final HobbyMatchIndex hobbyMatchIndex;
+    private final HobbyMatchMaintainer hobbyMatchMaintainer;
+    private final FeedVersions feedVersions;
+    private final HobbySnapshotCache hobbySnapshotCache;
+    private final HobbySearchIndex hobbySearchIndex;
+
+    @Value("${hobbie.feed.page-size:20}")
+    private int pageSize = 20;
+
+    @Value("${hobbie.feed.max-page-size:100}")
+    private int maxPageSize = 100;
 
     @Autowired
-    public HobbyServiceImpl(HobbyRepository hobbyRepository, CategoryService categoryService, UserService userService, LocationService locationService, Cloudinary cloudinary) {
+    public HobbyServiceImpl(HobbyRepository hobbyRepository, CategoryService categoryService, UserService userService, LocationService locationService, ImagePurgeOutbox imagePurgeOutbox, HobbyMatchIndex hobbyMatchIndex, HobbyMatchMaintainer hobbyMatchMaintainer, FeedVersions feedVersions, HobbySnapshotCache hobbySnapshotCache, HobbySearchIndex hobbySearchIndex) {
         this.hobbyRepository = hobbyRepository;
         this.categoryService = categoryService;
         this.userService = userService;
         this.locationService = locationService;
-        this.cloudinary = cloudinary;
+        this.imagePurgeOutbox = imagePurgeOutbox;
+        this.hobbyMatchIndex = hobbyMatchIndex;
+        this.hobbyMatchMaintainer = hobbyMatchMaintainer;
+        this.feedVersions = feedVersions;
+        this.hobbySnapshotCache = hobbySnapshotCache;
+        this.hobbySearchIndex = hobbySearchIndex;
     }
 
     @Override
     public Hobby findHobbieById(Long id) {
-        Optional<Hobby> hobby = this.hobbyRepository.findById(id);
+        Optional<Hobby> hobby = this.hobbyRepository.findWithReferencesById(id);
         if (hobby.isPresent()) {
             return hobby.get();
         } else {
@@ -46,14 +73,148 @@ public class HobbyServiceImpl implements HobbyService {
         }
     }
 
-    @SneakyThrows
+    @Override
+    public VersionDto findHobbyVersion(Long id) {
+        if (id == null) {
+            throw new NotFoundException("This hobby does not exist");
+        }
+        SerializedHobby cached = this.hobbySnapshotCache.getSerializedIfPresent(id);
+        if (cached != null) {
+            return new VersionDto(cached.getSnapshot().getVersion(), cached.getSnapshot().getUpdatedAt());
+        }
+        return this.hobbyRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException("This hobby does not exist"));
+    }
+
+    @Override
+    public HobbySnapshot findHobbySnapshot(Long id) {
+        return findSerializedHobby(id).getSnapshot();
+    }
+
+    @Override
+    public SerializedHobby findSerializedHobby(Long id) {
+        SerializedHobby hobby = id == null ? null : this.hobbySnapshotCache.getSerialized(id);
+        if (hobby == null) {
+            throw new NotFoundException("This hobby does not exist");
+        }
+        return hobby;
+    }
+
+    @Override
+    public VersionDto findFeedVersion(String username) {
+        return this.feedVersions.find(username);
+    }
+
     @Override
     public void saveUpdatedHobby(Hobby hobby) {
         Optional<Hobby> byId = this.hobbyRepository.findById(hobby.getId());
         if (byId.isPresent()) {
-            deleteResourcesById(byId.get());
+            Hobby old = byId.get();
+            hobby.setVersion(old.getVersion());
+            purgeIfReplaced(old.getProfileImg_id(), hobby.getProfileImg_id());
+            purgeIfReplaced(old.getGalleryImg1_id(), hobby.getGalleryImg1_id());
+            purgeIfReplaced(old.getGalleryImg2_id(), hobby.getGalleryImg2_id());
+            purgeIfReplaced(old.getGalleryImg3_id(), hobby.getGalleryImg3_id());
         }
         this.hobbyRepository.save(hobby);
+        this.hobbySnapshotCache.invalidate(hobby.getId());
+        this.hobbySearchIndex.hobbyChanged(hobby);
+        this.feedVersions.hobbyChanged(hobby.getId(), hobby.getCreator());
+        this.hobbyMatchIndex.put(hobby);
+        this.hobbyMatchMaintainer.hobbyChanged(hobby);
+    }
+
+    @Override
+    public Hobby patchHobby(Long id, HobbyInfoUpdateDto changes) {
+        Hobby hobby = findHobbieById(id);
+        boolean matchKeyChanged = false;
+        boolean cardChanged = false;
+        boolean textChanged = false;
+        if (changed(changes.getName(), hobby.getName())) {
+            hobby.setName(changes.getName());
+            cardChanged = true;
+        }
+        if (changed(changes.getSlogan(), hobby.getSlogan())) {
+            hobby.setSlogan(changes.getSlogan());
+            cardChanged = true;
+        }
+        if (changed(changes.getIntro(), hobby.getIntro())) {
+            hobby.setIntro(changes.getIntro());
+            textChanged = true;
+        }
+        if (changed(changes.getDescription(), hobby.getDescription())) {
+            hobby.setDescription(changes.getDescription());
+            textChanged = true;
+        }
+        if (changed(changes.getContactInfo(), hobby.getContactInfo())) {
+            hobby.setContactInfo(changes.getContactInfo());
+        }
+        if (changes.getPrice() != null
+                && (hobby.getPrice() == null || changes.getPrice().compareTo(hobby.getPrice()) != 0)) {
+            hobby.setPrice(changes.getPrice());
+            cardChanged = true;
+        }
+        if (changes.getCategory() != null
+                && (hobby.getCategory() == null || changes.getCategory() != hobby.getCategory().getName())) {
+            hobby.setCategory(this.categoryService.findByName(changes.getCategory()));
+            matchKeyChanged = true;
+        }
+        if (changes.getLocation() != null
+                && (hobby.getLocation() == null || changes.getLocation() != hobby.getLocation().getName())) {
+            hobby.setLocation(this.locationService.getLocationByName(changes.getLocation()));
+            matchKeyChanged = true;
+        }
+        if (changed(changes.getProfileImgUrl(), hobby.getProfileImgUrl())) {
+            hobby.setProfileImgUrl(changes.getProfileImgUrl());
+            cardChanged = true;
+        }
+        if (changed(changes.getGalleryImgUrl1(), hobby.getGalleryImgUrl1())) {
+            hobby.setGalleryImgUrl1(changes.getGalleryImgUrl1());
+        }
+        if (changed(changes.getGalleryImgUrl2(), hobby.getGalleryImgUrl2())) {
+            hobby.setGalleryImgUrl2(changes.getGalleryImgUrl2());
+        }
+        if (changed(changes.getGalleryImgUrl3(), hobby.getGalleryImgUrl3())) {
+            hobby.setGalleryImgUrl3(changes.getGalleryImgUrl3());
+        }
+        if (changed(changes.getProfileImg_id(), hobby.getProfileImg_id())) {
+            purgeIfReplaced(hobby.getProfileImg_id(), changes.getProfileImg_id());
+            hobby.setProfileImg_id(changes.getProfileImg_id());
+        }
+        if (changed(changes.getGalleryImg1_id(), hobby.getGalleryImg1_id())) {
+            purgeIfReplaced(hobby.getGalleryImg1_id(), changes.getGalleryImg1_id());
+            hobby.setGalleryImg1_id(changes.getGalleryImg1_id());
+        }
+        if (changed(changes.getGalleryImg2_id(), hobby.getGalleryImg2_id())) {
+            purgeIfReplaced(hobby.getGalleryImg2_id(), changes.getGalleryImg2_id());
+            hobby.setGalleryImg2_id(changes.getGalleryImg2_id());
+        }
+        if (changed(changes.getGalleryImg3_id(), hobby.getGalleryImg3_id())) {
+            purgeIfReplaced(hobby.getGalleryImg3_id(), changes.getGalleryImg3_id());
+            hobby.setGalleryImg3_id(changes.getGalleryImg3_id());
+        }
+        this.hobbySnapshotCache.invalidate(id);
+        if (cardChanged || matchKeyChanged || textChanged) {
+            this.hobbySearchIndex.hobbyChanged(hobby);
+        }
+        if (cardChanged || matchKeyChanged) {
+            this.feedVersions.hobbyChanged(hobby.getId(), hobby.getCreator());
+        }
+        if (matchKeyChanged) {
+            this.hobbyMatchIndex.put(hobby);
+            this.hobbyMatchMaintainer.hobbyChanged(hobby);
+        }
+        return hobby;
+    }
+
+    private static boolean changed(Object value, Object current) {
+        return value != null && !value.equals(current);
+    }
+
+    private void purgeIfReplaced(String oldImageId, String newImageId) {
+        if (oldImageId != null && !oldImageId.equals(newImageId)) {
+            this.imagePurgeOutbox.enqueue(oldImageId);
+        }
     }
 
     @Override
@@ -61,121 +222,104 @@ public class HobbyServiceImpl implements HobbyService {
         Optional<Hobby> byId = this.hobbyRepository.findById(id);
         if (byId.isPresent()) {
             deleteResourcesById(byId.get());
-            BusinessOwner business = this.userService.findBusinessByUsername(byId.get().getCreator());
-            business.getHobby_offers().remove(byId.get());
-            this.userService.findAndRemoveHobbyFromClientsRecords(byId.get());
-            this.hobbyRepository.deleteById(id);
+            this.feedVersions.hobbyChanged(id, byId.get().getCreator());
+            this.hobbyRepository.deleteOfferReference(id);
+            this.hobbyRepository.deleteSavedReferences(id);
+            this.hobbyMatchMaintainer.hobbyDeleted(id);
+            this.hobbyRepository.delete(byId.get());
+            this.hobbySnapshotCache.invalidate(id);
+            this.hobbySearchIndex.hobbyDeleted(id);
+            this.hobbyMatchIndex.remove(id);
             return true;
         }
         return false;
     }
 
-    private void deleteResourcesById(Hobby byId) throws Exception {
-        String profileImgId = byId.getProfileImg_id();
-        String galleryImgId1 = byId.getGalleryImg1_id();
-        String galleryImgId2 = byId.getGalleryImg2_id();
-        String galleryImgId3 = byId.getGalleryImg3_id();
-
-        cloudinary.api().deleteResources(Arrays.asList(profileImgId, galleryImgId1, galleryImgId2, galleryImgId3),
-                Map.of("invalidate", true));
-    }
-
-
-    @Override
-    public Set<Hobby> findHobbyMatches(String username) {
-        AppClient currentUserAppClient = this.userService.findAppClientByUsername(username);
-        Set<Hobby> hobby_matches = new HashSet<>();
-        if (currentUserAppClient.getTestResults() != null) {
-            boolean isAdded = false;
-            Random rand = new Random();
-            LocationEnum location = currentUserAppClient.getTestResults().getLocation();
-            Location locationByName = this.locationService.getLocationByName(location);
-            List<Hobby> allByLocation = this.hobbyRepository.findAllByLocation(locationByName);
-            List<CategoryNameEnum> testCategoryResults = new ArrayList<>();
-
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategoryOne());
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategoryTwo());
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategoryThree());
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategoryFour());
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategoryFive());
-            testCategoryResults.add(currentUserAppClient.getTestResults().getCategorySix());
-
-            if (allByLocation.size() > 0) {
-
-                for (int i = 0; i < 10; i++) {
-                    int randomIndex = rand.nextInt(allByLocation.size());
-                    Hobby randomHobby = allByLocation.get(randomIndex);
-                    if (hobby_matches.contains(randomHobby)) {
-                        continue;
-                    }
-                    for (CategoryNameEnum testCategory : testCategoryResults) {
-                        if (randomHobby.getCategory().getName().equals(testCategory)) {
-                            hobby_matches.add(randomHobby);
-                            isAdded = true;
-                        }
-                        if (isAdded) {
-                            isAdded = false;
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-        return hobby_matches;
-    }
-
-    @Override
-    public boolean saveHobbyForClient(Hobby hobby, String username) {
-        AppClient currentUserAppClient = this.userService.findAppClientByUsername(username);
-        Optional<Hobby> hobbyById = this.hobbyRepository.findById(hobby.getId());
-        List<Hobby> saved_hobbies = currentUserAppClient.getSaved_hobbies();
-        if (hobbyById.isPresent() && !(saved_hobbies.contains(hobbyById.get()))) {
-            saved_hobbies.add(hobbyById.get());
-            return true;
+    private void deleteResourcesById(Hobby byId) {
+        this.imagePurgeOutbox.enqueue(byId.getProfileImg_id(), byId.getGalleryImg1_id(),
+                byId.getGalleryImg2_id(), byId.getGalleryImg3_id());
+    }
+
+
+    @Override
+    public boolean saveHobbyForClient(Long hobbyId, String username) {
+        if (this.hobbyRepository.countSavedByClient(username, hobbyId) > 0
+                || this.hobbyRepository.insertSavedByClient(username, hobbyId) == 0) {
+            return false;
         }
-        return false;
+        this.feedVersions.userChanged(username);
+        return true;
     }
 
     @Override
-    public boolean removeHobbyForClient(Hobby hobby, String username) {
-        AppClient currentUserAppClient = this.userService.findAppClientByUsername(username);
-        Optional<Hobby> hobbyById = this.hobbyRepository.findById(hobby.getId());
-        if (currentUserAppClient != null) {
-            hobbyById.ifPresent(value -> currentUserAppClient.getSaved_hobbies().remove(value));
-            return true;
+    public boolean removeHobbyForClient(Long hobbyId, String username) {
+        if (this.hobbyRepository.deleteSavedByClient(username, hobbyId) > 0) {
+            this.feedVersions.userChanged(username);
         }
-        return false;
+        return true;
     }
 
     @Override
     public boolean isHobbySaved(Long hobbyId, String username) {
-        Optional<Hobby> byId = this.hobbyRepository.findById(hobbyId);
-        if (byId.isPresent()) {
-            AppClient currentUserAppClient = this.userService.findAppClientByUsername(username);
-            return currentUserAppClient.getSaved_hobbies().contains(byId.get());
-        }
-        return false;
+        return this.hobbyRepository.countSavedByClient(username, hobbyId) > 0;
     }
 
     @Override
-    public List<Hobby> findSavedHobbies(AppClient currentAppClient) {
-        return currentAppClient.getSaved_hobbies();
+    public HobbyCardPageDto findSavedHobbies(String username, Long after, Integer size) {
+        int limit = pageSize(size);
+        return page(this.hobbyRepository.findSavedCardsOfClient(username, before(after), PageRequest.of(0, limit + 1)),
+                limit);
     }
 
     @Override
-    public Set<Hobby> getAllHobbiesForBusiness(String username) {
-        return this.hobbyRepository.findAllByCreator(username);
+    public HobbyCardPageDto getAllHobbiesForBusiness(String username, Long after, Integer size) {
+        int limit = pageSize(size);
+        return page(this.hobbyRepository.findCardsOfCreator(username, before(after), PageRequest.of(0, limit + 1)),
+                limit);
     }
 
     @Override
-    public Set<Hobby> getAllHobbieMatchesForClient(String username) {
-        AppClient currentUserAppClient = this.userService.findAppClientByUsername(username);
-        return currentUserAppClient.getHobby_matches();
+    public HobbyCardPageDto getAllHobbieMatchesForClient(String username, Long after, Integer size) {
+        int limit = pageSize(size);
+        return page(this.hobbyRepository.findMatchCardsOfClient(username, before(after), PageRequest.of(0, limit + 1)),
+                limit);
+    }
+
+    @Override
+    public HobbyCardPageDto searchHobbies(HobbySearchDto search, Long after, Integer size) {
+        return this.hobbySearchIndex.search(search, after == null ? 0 : after, pageSize(size));
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size <= 0 ? this.pageSize : Math.min(size, this.maxPageSize);
+    }
+
+    private static long before(Long after) {
+        return after == null ? Long.MAX_VALUE : after;
+    }
+
+    /**
+     * Cards are read newest first, one more than the page holds, so the cursor is only returned when a next page
+     * exists.
+     */
+    private static HobbyCardPageDto page(List<HobbyCardDto> cards, int limit) {
+        if (cards.size() <= limit) {
+            return new HobbyCardPageDto(cards, null);
+        }
+        List<HobbyCardDto> page = cards.subList(0, limit);
+        return new HobbyCardPageDto(page, page.get(limit - 1).getId());
     }
 
     @Override
     public void createHobby(Hobby offer) {
+        Long ownerId = this.userService.findBusinessIdByUsername(offer.getCreator());
         this.hobbyRepository.save(offer);
+        this.hobbyRepository.insertOfferLink(ownerId, offer.getId());
+        this.hobbySnapshotCache.invalidate(offer.getId());
+        this.hobbySearchIndex.hobbyChanged(offer);
+        this.feedVersions.userChanged(offer.getCreator());
+        this.hobbyMatchIndex.put(offer);
+        this.hobbyMatchMaintainer.hobbyChanged(offer);
     }
 
 }
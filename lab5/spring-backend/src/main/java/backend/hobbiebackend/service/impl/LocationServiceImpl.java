@@ -1,9 +1,9 @@
 package backend.hobbiebackend.service.impl;
 
-import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.entities.Location;
 import backend.hobbiebackend.model.entities.enums.LocationEnum;
 import backend.hobbiebackend.model.repostiory.LocationRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.LocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,15 +11,16 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class LocationServiceImpl implements LocationService {
     private final LocationRepository locationRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public LocationServiceImpl(LocationRepository locationRepository) {
+    public LocationServiceImpl(LocationRepository locationRepository, ReferenceDataRegistry referenceDataRegistry) {
         this.locationRepository = locationRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @Override
@@ -37,11 +38,6 @@ public class LocationServiceImpl implements LocationService {
 
     @Override
     public Location getLocationByName(LocationEnum locationEnum) {
-        Optional<Location> location = this.locationRepository.findByName(locationEnum);
-        if (location.isPresent()) {
-            return location.get();
-        } else {
-            throw new NotFoundException("Location not found");
-        }
+        return this.referenceDataRegistry.location(locationEnum);
     }
 }
@@ -1,32 +1,27 @@
 package backend.hobbiebackend.service.impl;
 
-import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.entities.UserRoleEntity;
 import backend.hobbiebackend.model.entities.enums.UserRoleEnum;
 import backend.hobbiebackend.model.repostiory.UserRoleRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.UserRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 @Service
 public class UserRoleServiceImpl implements UserRoleService {
     private final UserRoleRepository userRoleRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public UserRoleServiceImpl(UserRoleRepository userRoleRepository) {
+    public UserRoleServiceImpl(UserRoleRepository userRoleRepository, ReferenceDataRegistry referenceDataRegistry) {
         this.userRoleRepository = userRoleRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @Override
     public UserRoleEntity getUserRoleByEnumName(UserRoleEnum userRoleEnum) {
-        Optional<UserRoleEntity> byRole = this.userRoleRepository.findByRole(userRoleEnum);
-        if (byRole.isPresent()) {
-            return byRole.get();
-        } else {
-            throw new NotFoundException("User role not found. Please seed the roles.");
-        }
+        return this.referenceDataRegistry.role(userRoleEnum);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package backend.hobbiebackend.service.impl;
 
+import backend.hobbiebackend.cleanup.UserDeletionWorker;
 import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.dto.AppClientSignUpDto;
 import backend.hobbiebackend.model.dto.BusinessRegisterDto;
@@ -12,6 +13,7 @@ import backend.hobbiebackend.model.repostiory.UserRepository;
 import backend.hobbiebackend.model.repostiory.UserRoleRepository;
 import backend.hobbiebackend.service.UserRoleService;
 import backend.hobbiebackend.service.UserService;
+import org.hibernate.Hibernate;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,17 +33,20 @@ public class UserServiceImpl implements UserService {
     private final BusinessOwnerRepository businessOwnerRepository;
     private final UserRoleService userRoleService;
     private final PasswordEncoder passwordEncoder;
+    private final UserDeletionWorker userDeletionWorker;
 
     @Autowired
     public UserServiceImpl(ModelMapper modelMapper, UserRepository userRepository,
                            AppClientRepository appClientRepository,
-                           BusinessOwnerRepository businessOwnerRepository, UserRoleService userRoleService, PasswordEncoder passwordEncoder) {
+                           BusinessOwnerRepository businessOwnerRepository, UserRoleService userRoleService, PasswordEncoder passwordEncoder,
+                           UserDeletionWorker userDeletionWorker) {
         this.modelMapper = modelMapper;
         this.userRepository = userRepository;
         this.appClientRepository = appClientRepository;
         this.businessOwnerRepository = businessOwnerRepository;
         this.userRoleService = userRoleService;
         this.passwordEncoder = passwordEncoder;
+        this.userDeletionWorker = userDeletionWorker;
 
     }
 
@@ -137,7 +142,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public BusinessOwner findBusinessOwnerById(Long id) {
-        Optional<BusinessOwner> businessOwner = this.businessOwnerRepository.findById(id);
+        Optional<BusinessOwner> businessOwner = this.businessOwnerRepository.findDetailsById(id);
         if (businessOwner.isPresent()) {
             return businessOwner.get();
         } else {
@@ -157,9 +162,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean userExists(String username, String email) {
-        Optional<UserEntity> byUsername = this.userRepository.findByUsername(username);
-        Optional<UserEntity> byEmail = this.userRepository.findByEmail(email);
-        return byUsername.isPresent() || byEmail.isPresent();
+        return this.userRepository.existsIncludingDeleted(username, email);
     }
 
     @Override
@@ -173,58 +176,69 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             return false;
         }
-        Optional<BusinessOwner> byId = this.businessOwnerRepository.findById(user.getId());
-
-        if (byId.isPresent()) {
-            List<AppClient> all = appClientRepository.findAll();
-            for (AppClient client : all) {
-                for (Hobby hobby : byId.get().getHobby_offers()) {
-                    client.getHobby_matches().remove(hobby);
-                    client.getSaved_hobbies().remove(hobby);
-                }
-                this.userRepository.save(client);
-            }
-        }
-        userRepository.delete(user);
+        this.userRepository.markDeleted(user.getId());
+        this.userDeletionWorker.userDeleted();
         return true;
     }
 
 
     @Override
     public AppClient findAppClientById(Long clientId) {
-        Optional<AppClient> user = this.appClientRepository.findById(clientId);
+        Optional<AppClient> user = this.appClientRepository.findDetailsById(clientId);
         if (user.isPresent()) {
-
-            return user.get();
+            return withSavedHobbies(user.get());
         } else {
             throw new NotFoundException("Can not find current user.");
         }
     }
 
     @Override
-    public void findAndRemoveHobbyFromClientsRecords(Hobby hobby) {
-        List<AppClient> all = this.appClientRepository.findAll();
+    public boolean businessExists(String businessName) {
+        return this.businessOwnerRepository.existsByBusinessName(businessName);
+    }
 
-        for (AppClient appClient : all) {
-            appClient.getSaved_hobbies().remove(hobby);
-            appClient.getHobby_matches().remove(hobby);
-        }
+    @Override
+    public AppClient findAppClientByUsername(String username) {
+        return this.appClientRepository.findByUsername(username).orElseThrow();
     }
 
+    @Override
+    public AppClient findAppClientDetailsByUsername(String username) {
+        return withSavedHobbies(this.appClientRepository.findDetailsByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Can not find current user.")));
+    }
 
     @Override
-    public boolean businessExists(String businessName) {
-        Optional<BusinessOwner> byBusinessName = this.businessOwnerRepository.findByBusinessName(businessName);
-        return byBusinessName.isPresent();
+    public Long findAppClientIdByUsername(String username) {
+        return this.appClientRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Can not find current user."));
     }
 
     @Override
-    public AppClient findAppClientByUsername(String username) {
-        return this.appClientRepository.findByUsername(username).orElseThrow();
+    public void setTestResults(Long clientId, Test results) {
+        this.appClientRepository.setTestResults(clientId, results.getId());
     }
 
     @Override
     public BusinessOwner findBusinessByUsername(String username) {
-        return this.businessOwnerRepository.findByUsername(username).get();
+        return this.businessOwnerRepository.findDetailsByUsername(username).get();
+    }
+
+    @Override
+    public Long findBusinessIdByUsername(String username) {
+        return this.businessOwnerRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Can not find business owner"));
+    }
+
+    /**
+     * Loads the saved hobbies of a client fetched with its details graph, which cannot fetch them in the same
+     * query as the matches. Categories and locations are loaded in batches.
+     */
+    private static AppClient withSavedHobbies(AppClient client) {
+        for (Hobby hobby : client.getSaved_hobbies()) {
+            Hibernate.initialize(hobby.getCategory());
+            Hibernate.initialize(hobby.getLocation());
+        }
+        return client;
     }
 }
@@ -0,0 +1,31 @@
+package backend.hobbiebackend.storage;
+
+import com.cloudinary.Cloudinary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "hobbie.images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorage implements ImageStorage {
+    private final Cloudinary cloudinary;
+
+    @Autowired
+    public CloudinaryImageStorage(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public void delete(Collection<String> imageIds) throws Exception {
+        this.cloudinary.api().deleteResources(new ArrayList<>(imageIds), Map.of("invalidate", true));
+    }
+}
@@ -0,0 +1,18 @@
+package backend.hobbiebackend.storage;
+
+import java.util.Collection;
+
+/**
+ * Storage of the images uploaded for hobbies, addressed by their public id.
+ */
+public interface ImageStorage {
+    /**
+     * The largest number of images {@link #delete(Collection)} accepts in one call.
+     */
+    int maxBatchSize();
+
+    /**
+     * Deletes images in one request. Ids of images that do not exist are ignored.
+     */
+    void delete(Collection<String> imageIds) throws Exception;
+}
@@ -0,0 +1,35 @@
+package backend.hobbiebackend.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Image storage that keeps image ids in memory, for tests and local development without Cloudinary.
+ */
+@Component
+@ConditionalOnProperty(name = "hobbie.images.storage", havingValue = "memory")
+public class InMemoryImageStorage implements ImageStorage {
+    private final Set<String> images = ConcurrentHashMap.newKeySet();
+
+    public void put(String imageId) {
+        this.images.add(imageId);
+    }
+
+    public boolean contains(String imageId) {
+        return this.images.contains(imageId);
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public void delete(Collection<String> imageIds) {
+        this.images.removeAll(imageIds);
+    }
+}
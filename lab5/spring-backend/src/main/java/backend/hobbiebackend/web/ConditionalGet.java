@@ -0,0 +1,47 @@
+package backend.hobbiebackend.web;
+
+import backend.hobbiebackend.model.dto.VersionDto;
+import org.springframework.http.CacheControl;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers conditional GET requests from the version of a resource, before the resource itself is loaded.
+ */
+final class ConditionalGet {
+    /**
+     * Clients may keep responses but have to revalidate them on every use.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Sets the {@code ETag} and {@code Last-Modified} headers for the version and checks them against the
+     * request's {@code If-None-Match} and {@code If-Modified-Since} headers.
+     *
+     * @return true if the response status was set to 304 Not Modified and the handler should return null
+     */
+    static boolean notModified(WebRequest request, VersionDto version) {
+        return notModified(request, version, "");
+    }
+
+    /**
+     * Same as {@link #notModified(WebRequest, VersionDto)} for one of several representations of the resource,
+     * such as a content coding, whose ETag gets the suffix so that each representation has its own.
+     */
+    static boolean notModified(WebRequest request, VersionDto version, String etagSuffix) {
+        if (version == null) {
+            return false;
+        }
+        return request.checkNotModified(etag(version, etagSuffix), lastModified(version));
+    }
+
+    static String etag(VersionDto version, String etagSuffix) {
+        return "\"" + version.getVersion() + etagSuffix + "\"";
+    }
+
+    static long lastModified(VersionDto version) {
+        return version.getUpdatedAt() == null ? -1 : version.getUpdatedAt().toEpochMilli();
+    }
+}
@@ -0,0 +1,29 @@
+package backend.hobbiebackend.web;
+
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Writes a page of hobby cards as a plain array, and the request for the next page, if any, as a
+ * {@code Link: <...>; rel="next"} header.
+ */
+final class HobbyCardPages {
+    private HobbyCardPages() {
+    }
+
+    static ResponseEntity<List<HobbyCardDto>> toResponse(HobbyCardPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(ConditionalGet.REVALIDATE);
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getCards());
+    }
+}
@@ -1,8 +1,11 @@
 package backend.hobbiebackend.web;
 
+import backend.hobbiebackend.model.dto.HobbyCardDto;
 import backend.hobbiebackend.model.dto.HobbyInfoDto;
 import backend.hobbiebackend.model.dto.HobbyInfoUpdateDto;
+import backend.hobbiebackend.model.dto.HobbySearchDto;
 import backend.hobbiebackend.model.entities.*;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.CategoryService;
 import backend.hobbiebackend.service.HobbyService;
 import backend.hobbiebackend.service.LocationService;
@@ -14,13 +17,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/hobbies")
@@ -30,30 +35,25 @@ public class HobbyController {
     private final LocationService locationService;
     private final UserService userService;
     private final ModelMapper modelMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public HobbyController(HobbyService hobbyService, CategoryService categoryService, LocationService locationService, UserService userService, ModelMapper modelMapper) {
+    public HobbyController(HobbyService hobbyService, CategoryService categoryService, LocationService locationService, UserService userService, ModelMapper modelMapper, ReferenceDataRegistry referenceDataRegistry) {
         this.hobbyService = hobbyService;
         this.categoryService = categoryService;
         this.locationService = locationService;
         this.userService = userService;
         this.modelMapper = modelMapper;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @PostMapping
     @Operation(summary = "Create new hobby", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<HttpStatus> saveHobby(@RequestBody HobbyInfoDto info) {
         Hobby offer = this.modelMapper.map(info, Hobby.class);
-        Category category = this.categoryService.findByName(info.getCategory());
-        Location location = this.locationService.getLocationByName(info.getLocation());
-        offer.setLocation(location);
-        offer.setCategory(category);
-        BusinessOwner business = this.userService.findBusinessByUsername(info.getCreator());
-        Set<Hobby> hobby_offers = business.getHobby_offers();
-        hobby_offers.add(offer);
-        business.setHobby_offers(hobby_offers);
+        offer.setCategory(this.referenceDataRegistry.category(info.getCategory()));
+        offer.setLocation(this.referenceDataRegistry.location(info.getLocation()));
         this.hobbyService.createHobby(offer);
-        this.userService.saveUpdatedUser(business);
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
@@ -65,16 +65,18 @@ public class HobbyController {
 
     @GetMapping(value = "/{id}")
     @Operation(summary = "Show hobby details", security = @SecurityRequirement(name = "bearerAuth"))
-    public Hobby getHobbyDetails(@PathVariable Long id) {
-        return this.hobbyService.findHobbieById(id);
+    public void getHobbyDetails(@PathVariable Long id, WebRequest request, HttpServletRequest servletRequest,
+                                HttpServletResponse response) throws IOException {
+        SerializedResponses.write(request, servletRequest, response, this.hobbyService.findHobbyVersion(id),
+                () -> this.hobbyService.findSerializedHobby(id));
     }
 
 
     @PostMapping("/save")
     @Operation(summary = "Save hobby in favorites", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Long> save(@RequestParam Long id, @RequestParam String username) {
-        Hobby hobby = this.hobbyService.findHobbieById(id);
-        boolean isSaved = this.hobbyService.saveHobbyForClient(hobby, username);
+        this.hobbyService.findHobbySnapshot(id);
+        boolean isSaved = this.hobbyService.saveHobbyForClient(id, username);
         if (!isSaved) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -84,8 +86,8 @@ public class HobbyController {
     @DeleteMapping("/remove")
     @Operation(summary = "Remove hobby from favorites", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Long> removeHobby(@RequestParam Long id, @RequestParam String username) {
-        Hobby hobby = this.hobbyService.findHobbieById(id);
-        boolean isRemoved = this.hobbyService.removeHobbyForClient(hobby, username);
+        this.hobbyService.findHobbySnapshot(id);
+        boolean isRemoved = this.hobbyService.removeHobbyForClient(id, username);
         if (!isRemoved) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -105,6 +107,13 @@ public class HobbyController {
         return new ResponseEntity<Hobby>(offer, HttpStatus.CREATED);
     }
 
+    @PatchMapping("/{id}")
+    @Operation(summary = "Update only the given fields of a hobby", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<Hobby> patchHobby(@PathVariable Long id, @RequestBody HobbyInfoUpdateDto changes) {
+        Hobby hobby = this.hobbyService.patchHobby(id, changes);
+        return new ResponseEntity<>(hobby, HttpStatus.OK);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete hobby", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<Long> deleteHobby(@PathVariable Long id) throws Exception {
@@ -115,11 +124,24 @@ public class HobbyController {
         return new ResponseEntity<>(id, HttpStatus.OK);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search hobbies by text, category, location and price, best matches first (next page in the Link header)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<HobbyCardDto>> searchHobbies(HobbySearchDto search,
+                                                            @RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer size) {
+        return HobbyCardPages.toResponse(this.hobbyService.searchHobbies(search, after, size));
+    }
+
     @GetMapping("/saved")
-    @Operation(summary = "Show hobbies that are saved in favorites", security = @SecurityRequirement(name = "bearerAuth"))
-    public List<Hobby> savedHobbies(@RequestParam String username) {
-        AppClient appClient = this.userService.findAppClientByUsername(username);
-        return this.hobbyService.findSavedHobbies(appClient);
+    @Operation(summary = "Show hobbies that are saved in favorites, newest first (next page in the Link header)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<HobbyCardDto>> savedHobbies(@RequestParam String username,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer size,
+                                                           WebRequest request) {
+        if (ConditionalGet.notModified(request, this.hobbyService.findFeedVersion(username))) {
+            return null;
+        }
+        return HobbyCardPages.toResponse(this.hobbyService.findSavedHobbies(username, after, size));
 
     }
 }
@@ -1,6 +1,6 @@
 package backend.hobbiebackend.web;
 
-import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.dto.HobbyCardDto;
 import backend.hobbiebackend.model.entities.UserEntity;
 import backend.hobbiebackend.model.entities.enums.UserRoleEnum;
 import backend.hobbiebackend.service.HobbyService;
@@ -9,12 +9,14 @@ import backend.hobbiebackend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Set;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -27,11 +29,17 @@ public class HomeController {
     }
 
     @GetMapping("/home")
-    @Operation(summary = "Show client/business homepage", security = @SecurityRequirement(name = "bearerAuth"))
-    public Set<Hobby> hobbiesShow(@RequestParam String username, @RequestParam String role) {
+    @Operation(summary = "Show client/business homepage, newest first (next page in the Link header)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<HobbyCardDto>> hobbiesShow(@RequestParam String username, @RequestParam String role,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer size,
+                                                          WebRequest request) {
+        if (ConditionalGet.notModified(request, this.hobbyService.findFeedVersion(username))) {
+            return null;
+        }
         if (role.equals("user")) {
-            return this.hobbyService.getAllHobbieMatchesForClient(username);
+            return HobbyCardPages.toResponse(this.hobbyService.getAllHobbieMatchesForClient(username, after, size));
         }
-        return this.hobbyService.getAllHobbiesForBusiness(username);
+        return HobbyCardPages.toResponse(this.hobbyService.getAllHobbiesForBusiness(username, after, size));
     }
 }
@@ -0,0 +1,71 @@
+package backend.hobbiebackend.web;
+
+import backend.hobbiebackend.cache.HobbySnapshot;
+import backend.hobbiebackend.cache.SerializedHobby;
+import backend.hobbiebackend.model.dto.VersionDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Writes pre-serialized JSON straight to the servlet response, gzipped if the client accepts it.
+ */
+final class SerializedResponses {
+    private SerializedResponses() {
+    }
+
+    /**
+     * Answers a conditional GET for the hobby from its version, or loads and writes it. Clients that accept gzip
+     * and clients that do not get different representations, so the former get their own ETag and both vary by
+     * {@code Accept-Encoding}, including on 304 responses.
+     */
+    static void write(WebRequest request, HttpServletRequest servletRequest, HttpServletResponse response,
+                      VersionDto version, Supplier<SerializedHobby> loader) throws IOException {
+        boolean acceptsGzip = acceptsGzip(servletRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etagSuffix = acceptsGzip ? "-gzip" : "";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ConditionalGet.REVALIDATE.getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ConditionalGet.notModified(request, version, etagSuffix)) {
+            return;
+        }
+        SerializedHobby hobby = loader.get();
+        HobbySnapshot snapshot = hobby.getSnapshot();
+        if (snapshot.getVersion() != version.getVersion()) {
+            // the hobby changed after its version was read
+            VersionDto loaded = new VersionDto(snapshot.getVersion(), snapshot.getUpdatedAt());
+            response.setHeader(HttpHeaders.ETAG, ConditionalGet.etag(loaded, etagSuffix));
+            if (loaded.getUpdatedAt() != null) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, loaded.getUpdatedAt().toEpochMilli());
+            }
+        }
+        boolean gzipped = acceptsGzip && hobby.hasGzip();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(hobby.getLength(gzipped));
+        hobby.writeTo(response.getOutputStream(), gzipped);
+    }
+
+    /**
+     * @return whether an {@code Accept-Encoding} header lists gzip, or any encoding, without {@code q=0}
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().matches("[qQ]\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -75,7 +75,7 @@ public class UserController {
     @GetMapping("/client")
     @Operation(summary = "show client-user information", security = @SecurityRequirement(name = "bearerAuth"))
     public AppClient showUserDetails(@RequestParam String username) {
-        return this.userService.findAppClientByUsername(username);
+        return this.userService.findAppClientDetailsByUsername(username);
     }
 
     @GetMapping("/business")
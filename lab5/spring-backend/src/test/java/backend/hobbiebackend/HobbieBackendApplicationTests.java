@@ -3,7 +3,7 @@ package backend.hobbiebackend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "hobbie.search.index-dir=")
 class HobbieBackendApplicationTests {
     @Test
     void contextLoads() {
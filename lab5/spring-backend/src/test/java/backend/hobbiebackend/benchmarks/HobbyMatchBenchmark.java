@@ -0,0 +1,120 @@
+package backend.hobbiebackend.benchmarks;
+
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.model.entities.Category;
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Location;
+import backend.hobbiebackend.model.entities.Test;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous random-sampling match over the hobbies of a location with the match index.
+ * The previous method also loaded every hobby of the location from the database first; that cost is not
+ * included here, so the difference in production is larger. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=HobbyMatchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HobbyMatchBenchmark {
+    @Param({"1000", "100000"})
+    private int hobbiesPerLocation;
+
+    private List<Hobby> hobbiesInLocation;
+    private HobbyMatchIndex index;
+    private Test results;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        CategoryNameEnum[] categories = CategoryNameEnum.values();
+        index = new HobbyMatchIndex(Mockito.mock(HobbyRepository.class));
+        hobbiesInLocation = new ArrayList<>();
+        long id = 1;
+        for (LocationEnum location : LocationEnum.values()) {
+            for (int i = 0; i < hobbiesPerLocation; i++) {
+                Hobby hobby = new Hobby();
+                hobby.setId(id++);
+                hobby.setLocation(new Location(location));
+                hobby.setCategory(new Category(categories[random.nextInt(categories.length)]));
+                index.put(hobby);
+                if (location == LocationEnum.ZURICH) {
+                    hobbiesInLocation.add(hobby);
+                }
+            }
+        }
+
+        results = new Test();
+        results.setLocation(LocationEnum.ZURICH);
+        results.setCategoryOne(CategoryNameEnum.ACTIVE);
+        results.setCategoryTwo(CategoryNameEnum.FUN);
+        results.setCategoryThree(CategoryNameEnum.CREATIVE);
+        results.setCategoryFour(CategoryNameEnum.RELAX);
+        results.setCategoryFive(CategoryNameEnum.INTELLECTUAL);
+        results.setCategorySix(CategoryNameEnum.SOCIAL);
+        results.setCategorySeven(CategoryNameEnum.OTHER);
+    }
+
+    @Benchmark
+    public Set<Hobby> randomSampling() {
+        Set<Hobby> hobby_matches = new HashSet<>();
+        boolean isAdded = false;
+        Random rand = new Random();
+        List<CategoryNameEnum> testCategoryResults = new ArrayList<>();
+        testCategoryResults.add(results.getCategoryOne());
+        testCategoryResults.add(results.getCategoryTwo());
+        testCategoryResults.add(results.getCategoryThree());
+        testCategoryResults.add(results.getCategoryFour());
+        testCategoryResults.add(results.getCategoryFive());
+        testCategoryResults.add(results.getCategorySix());
+        for (int i = 0; i < 10; i++) {
+            Hobby randomHobby = hobbiesInLocation.get(rand.nextInt(hobbiesInLocation.size()));
+            if (hobby_matches.contains(randomHobby)) {
+                continue;
+            }
+            for (CategoryNameEnum testCategory : testCategoryResults) {
+                if (randomHobby.getCategory().getName().equals(testCategory)) {
+                    hobby_matches.add(randomHobby);
+                    isAdded = true;
+                }
+                if (isAdded) {
+                    isAdded = false;
+                    break;
+                }
+            }
+        }
+        return hobby_matches;
+    }
+
+    @Benchmark
+    public long[] matchIndex() {
+        return index.match(results, 10);
+    }
+}
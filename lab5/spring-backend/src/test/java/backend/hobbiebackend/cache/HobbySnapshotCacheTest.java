@@ -0,0 +1,91 @@
+package backend.hobbiebackend.cache;
+
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class HobbySnapshotCacheTest {
+    private HobbyRepository hobbyRepository;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private HobbySnapshotCache cache;
+    private Hobby hobby;
+
+    @BeforeEach
+    void setUp() {
+        hobbyRepository = mock(HobbyRepository.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new HobbySnapshotCache(hobbyRepository, objectMapper, meterRegistry, 1 << 20, 600);
+        hobby = new Hobby();
+        hobby.setId(1L);
+        hobby.setName("hobby");
+        when(hobbyRepository.findWithReferencesById(1L)).thenReturn(Optional.of(hobby));
+        when(hobbyRepository.findWithReferencesById(2L)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void get_should_load_once() {
+        assertEquals("hobby", cache.get(1L).getName());
+        assertEquals("hobby", cache.get(1L).getName());
+        verify(hobbyRepository, times(1)).findWithReferencesById(1L);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "hobbies").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void invalidate_should_reload_changed_hobby() {
+        cache.get(1L);
+        hobby.setName("renamed");
+        cache.invalidate(1L);
+        assertEquals("renamed", cache.get(1L).getName());
+
+        hobby.setName("renamed again");
+        cache.invalidateAll(List.of(1L, 2L));
+        assertEquals("renamed again", cache.get(1L).getName());
+        verify(hobbyRepository, times(3)).findWithReferencesById(1L);
+    }
+
+    @Test
+    void get_should_not_cache_missing_hobby() {
+        assertNull(cache.get(2L));
+        assertNull(cache.get(2L));
+        verify(hobbyRepository, times(2)).findWithReferencesById(2L);
+    }
+
+    @Test
+    void getSerialized_should_hold_json_and_gzip_of_snapshot() throws IOException {
+        hobby.setDescription("a long description ".repeat(20));
+        SerializedHobby serialized = cache.getSerialized(1L);
+        byte[] expected = objectMapper.writeValueAsBytes(serialized.getSnapshot());
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        serialized.writeTo(json, false);
+        assertArrayEquals(expected, json.toByteArray());
+        assertEquals(expected.length, serialized.getLength(false));
+
+        assertTrue(serialized.hasGzip());
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        serialized.writeTo(gzip, true);
+        assertEquals(gzip.size(), serialized.getLength(true));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.toByteArray()))) {
+            assertArrayEquals(expected, in.readAllBytes());
+        }
+    }
+}
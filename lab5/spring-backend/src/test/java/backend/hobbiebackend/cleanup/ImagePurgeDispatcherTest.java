@@ -0,0 +1,81 @@
+package backend.hobbiebackend.cleanup;
+
+import backend.hobbiebackend.model.entities.ImagePurge;
+import backend.hobbiebackend.model.repostiory.ImagePurgeRepository;
+import backend.hobbiebackend.storage.ImageStorage;
+import backend.hobbiebackend.storage.InMemoryImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImagePurgeDispatcherTest {
+    private ImagePurgeRepository mockImagePurgeRepository;
+    private ImagePurge first;
+    private ImagePurge second;
+
+    @BeforeEach
+    void setUp() {
+        mockImagePurgeRepository = mock(ImagePurgeRepository.class);
+        first = new ImagePurge("img-1", Instant.now());
+        second = new ImagePurge("img-2", Instant.now());
+        when(mockImagePurgeRepository.findAllByDeadLetteredFalseAndNextAttemptAtLessThanEqualOrderById(any(), any()))
+                .thenReturn(List.of(first, second));
+    }
+
+    @Test
+    void dispatch_should_delete_images_and_purges() {
+        InMemoryImageStorage storage = new InMemoryImageStorage();
+        storage.put("img-1");
+        storage.put("img-2");
+        storage.put("img-3");
+        ImagePurgeDispatcher dispatcher =
+                new ImagePurgeDispatcher(mockImagePurgeRepository, storage, new SimpleMeterRegistry());
+
+        assertEquals(2, dispatcher.dispatch());
+        assertFalse(storage.contains("img-1"));
+        assertFalse(storage.contains("img-2"));
+        assertTrue(storage.contains("img-3"));
+        verify(mockImagePurgeRepository).deleteInBatch(List.of(first, second));
+    }
+
+    @Test
+    void dispatch_should_back_off_and_dead_letter_when_storage_fails() {
+        ImagePurgeDispatcher dispatcher =
+                new ImagePurgeDispatcher(mockImagePurgeRepository, new FailingImageStorage(), new SimpleMeterRegistry());
+        Instant before = first.getNextAttemptAt();
+
+        assertEquals(0, dispatcher.dispatch());
+        assertEquals(1, first.getAttempts());
+        assertTrue(first.getNextAttemptAt().isAfter(before));
+        assertEquals("unavailable", first.getLastError());
+        assertFalse(first.isDeadLettered());
+
+        for (int i = 1; i < 8; i++) {
+            dispatcher.dispatch();
+        }
+        assertTrue(first.isDeadLettered());
+        assertTrue(second.isDeadLettered());
+        verify(mockImagePurgeRepository, never()).deleteInBatch(any());
+    }
+
+    private static class FailingImageStorage implements ImageStorage {
+        @Override
+        public int maxBatchSize() {
+            return 100;
+        }
+
+        @Override
+        public void delete(Collection<String> imageIds) throws IOException {
+            throw new IOException("unavailable");
+        }
+    }
+}
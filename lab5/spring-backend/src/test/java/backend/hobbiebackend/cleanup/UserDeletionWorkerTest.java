@@ -0,0 +1,165 @@
+package backend.hobbiebackend.cleanup;
+
+import backend.hobbiebackend.cache.HobbySnapshotCache;
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.matching.HobbyMatchMaintainer;
+import backend.hobbiebackend.search.HobbySearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class UserDeletionWorkerTest {
+    private JdbcTemplate jdbcTemplate;
+    private FeedVersions feedVersions;
+    private ImagePurgeOutbox imagePurgeOutbox;
+    private SimpleMeterRegistry meterRegistry;
+    private UserDeletionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:deletion;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE users_roles (user_entity_id BIGINT NOT NULL, roles_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE business_owners (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE hobbies (id BIGINT PRIMARY KEY, profile_img_id VARCHAR(64), "
+                + "img1_id VARCHAR(64), img2_id VARCHAR(64), img3_id VARCHAR(64))");
+        jdbcTemplate.execute("CREATE TABLE business_owners_hobby_offers (business_owner_id BIGINT NOT NULL, "
+                + "hobby_offers_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE test_results (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE app_clients (id BIGINT PRIMARY KEY, test_results_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE app_clients_saved_hobbies (app_client_id BIGINT NOT NULL, "
+                + "saved_hobbies_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE app_clients_hobby_matches (app_client_id BIGINT NOT NULL, "
+                + "hobby_matches_id BIGINT NOT NULL)");
+
+        owner(1L, true, 5);
+        owner(2L, false, 1);
+        client(3L, true, 30L);
+        client(4L, false, 40L);
+        jdbcTemplate.update("INSERT INTO app_clients_saved_hobbies VALUES (4, 101), (4, 201), (3, 201)");
+
+        feedVersions = mock(FeedVersions.class);
+        imagePurgeOutbox = mock(ImagePurgeOutbox.class);
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new UserDeletionWorker(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                mock(HobbyMatchIndex.class), mock(HobbyMatchMaintainer.class), feedVersions,
+                mock(HobbySnapshotCache.class), mock(HobbySearchIndex.class), imagePurgeOutbox, meterRegistry);
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void userDeleted_should_delete_owner_hobbies_in_batches() throws InterruptedException {
+        worker.userDeleted();
+        awaitPurged();
+
+        assertEquals(List.of(2L, 4L), ids("SELECT id FROM users"));
+        assertEquals(List.of(201L), ids("SELECT id FROM hobbies"));
+        assertEquals(List.of(201L), ids("SELECT hobby_offers_id FROM business_owners_hobby_offers"));
+        assertEquals(List.of(201L), ids("SELECT saved_hobbies_id FROM app_clients_saved_hobbies"));
+        verify(feedVersions, times(3)).hobbiesChanged(anyList());
+        verify(imagePurgeOutbox, times(3)).enqueue(any(String[].class));
+        assertEquals(5, meterRegistry.counter("hobbie.users.deletion.hobbies").count());
+        assertEquals(2, meterRegistry.counter("hobbie.users.deletion.users").count());
+        assertEquals(0, worker.getPendingUsers());
+    }
+
+    @Test
+    void userDeleted_should_enqueue_images_of_deleted_hobbies() throws InterruptedException {
+        jdbcTemplate.update("UPDATE hobbies SET profile_img_id = 'profile-' || id, img2_id = 'gallery-' || id");
+        Set<String> enqueued = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            for (Object argument : invocation.getRawArguments()) {
+                for (String imageId : (String[]) argument) {
+                    if (imageId != null) {
+                        enqueued.add(imageId);
+                    }
+                }
+            }
+            return null;
+        }).when(imagePurgeOutbox).enqueue(any(String[].class));
+
+        worker.userDeleted();
+        awaitPurged();
+
+        assertEquals(Set.of("profile-101", "profile-102", "profile-103", "profile-104", "profile-105",
+                "gallery-101", "gallery-102", "gallery-103", "gallery-104", "gallery-105"), enqueued);
+    }
+
+    @Test
+    void userDeleted_should_remove_client_rows_and_test_results() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO app_clients_hobby_matches VALUES (3, 201), (4, 201)");
+        worker.userDeleted();
+        awaitPurged();
+
+        assertEquals(List.of(4L), ids("SELECT id FROM app_clients"));
+        assertEquals(List.of(40L), ids("SELECT id FROM test_results"));
+        assertEquals(List.of(4L), ids("SELECT app_client_id FROM app_clients_hobby_matches"));
+        assertEquals(List.of(4L), ids("SELECT app_client_id FROM app_clients_saved_hobbies"));
+        assertEquals(List.of(), ids("SELECT user_entity_id FROM users_roles WHERE user_entity_id IN (1, 3)"));
+    }
+
+    @Test
+    void start_should_finish_deletions_left_by_a_previous_run() throws InterruptedException {
+        // a run that stopped after the first batch of owner 1
+        jdbcTemplate.update("DELETE FROM business_owners_hobby_offers WHERE hobby_offers_id IN (101, 102)");
+        jdbcTemplate.update("DELETE FROM hobbies WHERE id IN (101, 102)");
+
+        worker.start();
+        awaitPurged();
+
+        assertEquals(List.of(2L, 4L), ids("SELECT id FROM users"));
+        assertEquals(List.of(201L), ids("SELECT id FROM hobbies"));
+        verify(feedVersions, times(2)).hobbiesChanged(anyList());
+        assertEquals(3, meterRegistry.counter("hobbie.users.deletion.hobbies").count());
+    }
+
+    private void awaitPurged() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((worker.getPendingUsers() > 0 || !ids("SELECT id FROM users WHERE deleted").isEmpty())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql + " ORDER BY 1", Long.class);
+    }
+
+    private void owner(long id, boolean deleted, int hobbies) {
+        jdbcTemplate.update("INSERT INTO users VALUES (?, ?)", id, deleted);
+        jdbcTemplate.update("INSERT INTO users_roles VALUES (?, 2)", id);
+        jdbcTemplate.update("INSERT INTO business_owners VALUES (?)", id);
+        for (long hobby = id * 100 + 1; hobby <= id * 100 + hobbies; hobby++) {
+            jdbcTemplate.update("INSERT INTO hobbies (id) VALUES (?)", hobby);
+            jdbcTemplate.update("INSERT INTO business_owners_hobby_offers VALUES (?, ?)", id, hobby);
+        }
+    }
+
+    private void client(long id, boolean deleted, long testResults) {
+        jdbcTemplate.update("INSERT INTO users VALUES (?, ?)", id, deleted);
+        jdbcTemplate.update("INSERT INTO users_roles VALUES (?, 1)", id);
+        jdbcTemplate.update("INSERT INTO test_results VALUES (?)", testResults);
+        jdbcTemplate.update("INSERT INTO app_clients VALUES (?, ?)", id, testResults);
+    }
+}
@@ -0,0 +1,80 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.model.entities.Test;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.List;
+
+import static backend.hobbiebackend.matching.MatchingFixtures.hobby;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HobbyMatchIndexTest {
+    private HobbyMatchIndex index;
+    private Test results;
+
+    @BeforeEach
+    void setUp() {
+        index = new HobbyMatchIndex(mock(HobbyRepository.class));
+        index.put(hobby(1L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        index.put(hobby(2L, LocationEnum.ZURICH, CategoryNameEnum.RELAX));
+        index.put(hobby(3L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        index.put(hobby(4L, LocationEnum.BERN, CategoryNameEnum.ACTIVE));
+        index.put(hobby(5L, LocationEnum.ZURICH, CategoryNameEnum.SOCIAL));
+
+        results = new Test();
+        results.setLocation(LocationEnum.ZURICH);
+        results.setCategoryOne(CategoryNameEnum.RELAX);
+        results.setCategoryTwo(CategoryNameEnum.ACTIVE);
+        results.setCategorySeven(CategoryNameEnum.SOCIAL);
+    }
+
+    @org.junit.jupiter.api.Test
+    void match_should_rank_by_category_score_then_newest() {
+        assertArrayEquals(new long[]{2L, 3L, 1L, 5L}, index.match(results, 10));
+    }
+
+    @org.junit.jupiter.api.Test
+    void match_should_respect_limit() {
+        assertArrayEquals(new long[]{2L, 3L}, index.match(results, 2));
+    }
+
+    @org.junit.jupiter.api.Test
+    void put_should_move_updated_hobby() {
+        index.put(hobby(2L, LocationEnum.BERN, CategoryNameEnum.RELAX));
+        assertArrayEquals(new long[]{3L, 1L, 5L}, index.match(results, 10));
+        assertEquals(5, index.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void remove_should_drop_hobby() {
+        index.remove(3L);
+        assertArrayEquals(new long[]{2L, 1L, 5L}, index.match(results, 10));
+        assertEquals(4, index.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void load_should_replace_index_with_sorted_buckets() {
+        HobbyRepository hobbyRepository = mock(HobbyRepository.class);
+        when(hobbyRepository.findAllMatchKeys()).thenReturn(List.of(
+                new Object[]{7L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE},
+                new Object[]{2L, LocationEnum.ZURICH, CategoryNameEnum.RELAX},
+                new Object[]{9L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE},
+                new Object[]{3L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE},
+                new Object[]{4L, LocationEnum.BERN, CategoryNameEnum.ACTIVE}));
+        HobbyMatchIndex loaded = new HobbyMatchIndex(hobbyRepository);
+        loaded.put(hobby(1L, LocationEnum.ZURICH, CategoryNameEnum.SOCIAL));
+
+        loaded.load();
+
+        assertArrayEquals(new long[]{2L, 9L, 7L, 3L}, loaded.match(results, 10));
+        assertEquals(5, loaded.size());
+        loaded.put(hobby(5L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        assertArrayEquals(new long[]{2L, 9L, 7L, 5L, 3L}, loaded.match(results, 10));
+    }
+}
@@ -0,0 +1,83 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.matching.MatchingFixtures.FailingJdbcTemplate;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+
+import static backend.hobbiebackend.matching.MatchingFixtures.hobby;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class HobbyMatchMaintainerTest {
+    private FailingJdbcTemplate jdbcTemplate;
+    private FeedVersions feedVersions;
+    private HobbyMatchIndex index;
+    private HobbyMatchMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:matches;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new FailingJdbcTemplate(dataSource);
+        MatchingFixtures.createMatchTables(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO test_results (id, location, category_one) VALUES (10, 'ZURICH', 'ACTIVE')");
+        jdbcTemplate.update("INSERT INTO app_clients (id, test_results_id) VALUES (1, 10)");
+
+        index = new HobbyMatchIndex(mock(HobbyRepository.class));
+        index.put(hobby(1L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        index.put(hobby(2L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        index.put(hobby(3L, LocationEnum.BERN, CategoryNameEnum.ACTIVE));
+
+        feedVersions = mock(FeedVersions.class);
+        maintainer = new HobbyMatchMaintainer(index, jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                feedVersions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintainer.shutdown();
+    }
+
+    @Test
+    void refresh_should_write_only_changed_rows() {
+        jdbcTemplate.update("INSERT INTO app_clients_hobby_matches VALUES (1, 2), (1, 3)");
+
+        assertEquals(2, maintainer.refresh(List.of(1L)));
+        assertEquals(List.of(1L, 2L), matches(1L));
+        verify(feedVersions).usersChanged(Set.of(1L));
+
+        assertEquals(0, maintainer.refresh(List.of(1L)));
+    }
+
+    @Test
+    void refresh_should_retry_failed_chunk() throws InterruptedException {
+        jdbcTemplate.failOnBatch(1, () -> new IllegalStateException("connection lost"));
+
+        maintainer.hobbyChanged(hobby(1L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (matches(1L).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(jdbcTemplate.hasFailed());
+        assertEquals(List.of(1L, 2L), matches(1L));
+        assertEquals(0, maintainer.getPendingClients());
+    }
+
+    private List<Long> matches(long clientId) {
+        return jdbcTemplate.queryForList("SELECT hobby_matches_id FROM app_clients_hobby_matches "
+                + "WHERE app_client_id = ? ORDER BY hobby_matches_id", Long.class, clientId);
+    }
+}
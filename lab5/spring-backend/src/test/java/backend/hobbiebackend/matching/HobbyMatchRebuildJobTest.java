@@ -0,0 +1,164 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.matching.MatchingFixtures.FailingJdbcTemplate;
+import backend.hobbiebackend.model.entities.MatchRebuildPartition;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import backend.hobbiebackend.model.repostiory.MatchRebuildPartitionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static backend.hobbiebackend.matching.MatchingFixtures.hobby;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the rebuild against H2, with a partition repository that keeps its rows in the same database so that the
+ * checkpoints written by the job are what a resumed rebuild reads.
+ */
+class HobbyMatchRebuildJobTest {
+    private static final RowMapper<MatchRebuildPartition> PARTITION = (rs, rowNum) -> {
+        MatchRebuildPartition partition = new MatchRebuildPartition(LocationEnum.valueOf(rs.getString("location")),
+                rs.getLong("from_client_id"), rs.getLong("to_client_id"));
+        partition.setId(rs.getLong("id"));
+        partition.setCheckpointClientId(rs.getLong("checkpoint_client_id"));
+        partition.setProcessedClients(rs.getLong("processed_clients"));
+        partition.setChangedRows(rs.getLong("changed_rows"));
+        partition.setFinished(rs.getBoolean("finished"));
+        return partition;
+    };
+
+    private FailingJdbcTemplate jdbcTemplate;
+    private HobbyMatchMaintainer maintainer;
+    private HobbyMatchRebuildJob job;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:rebuild;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new FailingJdbcTemplate(dataSource);
+        MatchingFixtures.createMatchTables(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE match_rebuild_partitions (id BIGINT PRIMARY KEY, "
+                + "location VARCHAR(32) NOT NULL, from_client_id BIGINT NOT NULL, to_client_id BIGINT NOT NULL, "
+                + "checkpoint_client_id BIGINT NOT NULL, processed_clients BIGINT NOT NULL, "
+                + "changed_rows BIGINT NOT NULL, finished BOOLEAN NOT NULL)");
+        for (long id = 1; id <= 10; id++) {
+            client(id, LocationEnum.ZURICH);
+        }
+
+        HobbyMatchIndex index = new HobbyMatchIndex(mock(HobbyRepository.class));
+        index.put(hobby(1L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        index.put(hobby(2L, LocationEnum.ZURICH, CategoryNameEnum.ACTIVE));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        maintainer = new HobbyMatchMaintainer(index, jdbcTemplate, transactionManager, mock(FeedVersions.class));
+        job = new HobbyMatchRebuildJob(maintainer, partitionRepository(), jdbcTemplate, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+        maintainer.shutdown();
+    }
+
+    @Test
+    void start_should_plan_half_open_ranges_covering_every_client() throws InterruptedException {
+        client(11, LocationEnum.BERN);
+
+        assertTrue(job.start(false));
+        awaitFinished();
+
+        assertEquals(List.of("BERN 10-11", "ZURICH 0-2", "ZURICH 2-4", "ZURICH 4-6", "ZURICH 6-8", "ZURICH 8-10"),
+                jdbcTemplate.queryForList("SELECT location || ' ' || from_client_id || '-' || to_client_id "
+                        + "FROM match_rebuild_partitions ORDER BY location, from_client_id", String.class));
+        assertEquals(11L, job.getProgress().get("processedClients"));
+        assertEquals(20, count("SELECT COUNT(*) FROM app_clients_hobby_matches"));
+    }
+
+    @Test
+    void start_should_resume_from_checkpoint_after_interrupted_write() throws InterruptedException {
+        ReflectionTestUtils.setField(job, "rangesPerLocation", 1);
+        jdbcTemplate.failOnBatch(2, () -> new IllegalStateException("connection lost"));
+
+        job.start(false);
+        awaitFinished();
+        assertEquals("connection lost", job.getProgress().get("lastError"));
+        assertEquals(2, count("SELECT checkpoint_client_id FROM match_rebuild_partitions"));
+        assertEquals(4, count("SELECT COUNT(*) FROM app_clients_hobby_matches"));
+
+        job.start(false);
+        awaitFinished();
+
+        assertNull(job.getProgress().get("lastError"));
+        assertEquals(10L, job.getProgress().get("processedClients"));
+        assertEquals(1, count("SELECT COUNT(*) FROM match_rebuild_partitions WHERE finished"));
+        assertEquals(20, count("SELECT COUNT(*) FROM app_clients_hobby_matches"));
+    }
+
+    @Test
+    void write_should_retry_chunk_after_duplicate_key() throws InterruptedException {
+        ReflectionTestUtils.setField(job, "rangesPerLocation", 1);
+        jdbcTemplate.failOnBatch(1, () -> new DuplicateKeyException("refreshed concurrently"));
+
+        job.start(false);
+        awaitFinished();
+
+        assertNull(job.getProgress().get("lastError"));
+        assertEquals(10L, job.getProgress().get("processedClients"));
+        assertEquals(20, count("SELECT COUNT(*) FROM app_clients_hobby_matches"));
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Boolean.TRUE.equals(job.getProgress().get("running")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private void client(long id, LocationEnum location) {
+        jdbcTemplate.update("INSERT INTO test_results (id, location, category_one) VALUES (?, ?, 'ACTIVE')",
+                id, location.name());
+        jdbcTemplate.update("INSERT INTO app_clients (id, test_results_id) VALUES (?, ?)", id, id);
+    }
+
+    private MatchRebuildPartitionRepository partitionRepository() {
+        MatchRebuildPartitionRepository repository = mock(MatchRebuildPartitionRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.findAll()).thenAnswer(invocation ->
+                jdbcTemplate.query("SELECT * FROM match_rebuild_partitions ORDER BY id", PARTITION));
+        when(repository.findAllByFinishedFalse()).thenAnswer(invocation ->
+                jdbcTemplate.query("SELECT * FROM match_rebuild_partitions WHERE NOT finished ORDER BY id", PARTITION));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<MatchRebuildPartition> partitions = invocation.getArgument(0);
+            for (MatchRebuildPartition partition : partitions) {
+                partition.setId(ids.incrementAndGet());
+                jdbcTemplate.update("INSERT INTO match_rebuild_partitions VALUES (?, ?, ?, ?, ?, 0, 0, FALSE)",
+                        partition.getId(), partition.getLocation().name(), partition.getFromClientId(),
+                        partition.getToClientId(), partition.getCheckpointClientId());
+            }
+            return partitions;
+        });
+        return repository;
+    }
+}
@@ -0,0 +1,77 @@
+package backend.hobbiebackend.matching;
+
+import backend.hobbiebackend.model.entities.Category;
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Location;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hobbies and the H2 schema of test results and matches shared by the matching tests.
+ */
+final class MatchingFixtures {
+    private MatchingFixtures() {
+    }
+
+    static Hobby hobby(Long id, LocationEnum location, CategoryNameEnum category) {
+        Hobby hobby = new Hobby();
+        hobby.setId(id);
+        hobby.setLocation(new Location(location));
+        hobby.setCategory(new Category(category));
+        return hobby;
+    }
+
+    /**
+     * Drops everything in the database and creates the tables of test results, clients and their matches.
+     */
+    static void createMatchTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE test_results (id BIGINT PRIMARY KEY, location VARCHAR(32), "
+                + "category_one VARCHAR(32), category_two VARCHAR(32), category_three VARCHAR(32), "
+                + "category_four VARCHAR(32), category_five VARCHAR(32), category_six VARCHAR(32), "
+                + "category_seven VARCHAR(32))");
+        jdbcTemplate.execute("CREATE TABLE app_clients (id BIGINT PRIMARY KEY, test_results_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE app_clients_hobby_matches (app_client_id BIGINT NOT NULL, "
+                + "hobby_matches_id BIGINT NOT NULL, PRIMARY KEY (app_client_id, hobby_matches_id))");
+    }
+
+    /**
+     * Throws from the n-th batch update after {@link #failOnBatch} once, as a lost connection would.
+     */
+    static class FailingJdbcTemplate extends JdbcTemplate {
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private volatile int failingBatch;
+        private volatile Supplier<RuntimeException> failure;
+
+        FailingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        void failOnBatch(int batch, Supplier<RuntimeException> failure) {
+            this.batches.set(0);
+            this.failure = failure;
+            this.failingBatch = batch;
+        }
+
+        boolean hasFailed() {
+            return this.failed.get();
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (this.batches.incrementAndGet() == this.failingBatch) {
+                this.failed.set(true);
+                throw this.failure.get();
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
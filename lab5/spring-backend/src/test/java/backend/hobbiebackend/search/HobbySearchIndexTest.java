@@ -0,0 +1,142 @@
+package backend.hobbiebackend.search;
+
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import backend.hobbiebackend.model.dto.HobbySearchDto;
+import backend.hobbiebackend.model.entities.Category;
+import backend.hobbiebackend.model.entities.Hobby;
+import backend.hobbiebackend.model.entities.Location;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class HobbySearchIndexTest {
+    private JdbcTemplate jdbcTemplate;
+    private HobbySearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        index = new HobbySearchIndex(jdbcTemplate, new SimpleMeterRegistry(), "");
+        index.hobbyChanged(hobby(1L, "Horse riding", "Ride through the hills", "Equestrian tourism in the countryside",
+                "25.00", CategoryNameEnum.ACTIVE, LocationEnum.ZURICH));
+        index.hobbyChanged(hobby(2L, "Pottery", "Shape your own cup", "A calm evening at the wheel, no horse involved",
+                "40.00", CategoryNameEnum.CREATIVE, LocationEnum.ZURICH));
+        index.hobbyChanged(hobby(3L, "Trail running", "Run the mountains", "Running through the countryside",
+                "10.50", CategoryNameEnum.ACTIVE, LocationEnum.BERN));
+        index.awaitChanges();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.shutdown();
+    }
+
+    @Test
+    void search_should_rank_name_matches_first() {
+        assertEquals(List.of(1L, 2L), ids(index.search(search("horse"), 0, 10)));
+    }
+
+    @Test
+    void search_should_apply_filters() {
+        HobbySearchDto countryside = search("countryside");
+        countryside.setLocation(LocationEnum.BERN);
+        assertEquals(List.of(3L), ids(index.search(countryside, 0, 10)));
+
+        HobbySearchDto active = search(null);
+        active.setCategory(CategoryNameEnum.ACTIVE);
+        active.setMaxPrice(new BigDecimal("20"));
+        assertEquals(List.of(3L), ids(index.search(active, 0, 10)));
+    }
+
+    @Test
+    void search_without_text_should_page_newest_first() {
+        HobbyCardPageDto first = index.search(search(" "), 0, 2);
+        assertEquals(List.of(3L, 2L), ids(first));
+        assertEquals(2L, first.getNextCursor());
+
+        HobbyCardPageDto second = index.search(search(null), first.getNextCursor(), 2);
+        assertEquals(List.of(1L), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void search_should_return_stored_card_fields() {
+        HobbyCardDto card = index.search(search("pottery"), 0, 10).getCards().get(0);
+        assertEquals("Shape your own cup", card.getSlogan());
+        assertEquals(new BigDecimal("40.00"), card.getPrice());
+        assertEquals(CategoryNameEnum.CREATIVE, card.getCategory());
+        assertEquals(LocationEnum.ZURICH, card.getLocation());
+    }
+
+    @Test
+    void changes_should_replace_and_remove_documents() throws Exception {
+        index.hobbyChanged(hobby(2L, "Pottery", "Shape your own cup", "A calm evening at the wheel",
+                "40.00", CategoryNameEnum.CREATIVE, LocationEnum.ZURICH));
+        index.hobbyDeleted(1L);
+        index.awaitChanges();
+
+        assertEquals(List.of(), ids(index.search(search("horse"), 0, 10)));
+        assertEquals(List.of(3L, 2L), ids(index.search(search(null), 0, 10)));
+    }
+
+    @Test
+    void failed_reindex_should_keep_previous_index() throws Exception {
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        assertTrue(index.reindex());
+        index.awaitChanges();
+
+        assertEquals("connection lost", index.getStatus().get("lastError"));
+        assertEquals(false, index.getStatus().get("reindexing"));
+        assertEquals(3, index.getStatus().get("documents"));
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search(search(null), 0, 10)));
+
+        index.hobbyChanged(hobby(4L, "Horse painting", "Paint horses", "Horses in watercolour",
+                "30.00", CategoryNameEnum.CREATIVE, LocationEnum.BERN));
+        index.awaitChanges();
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(index.search(search(null), 0, 10)));
+    }
+
+    private static List<Long> ids(HobbyCardPageDto page) {
+        return page.getCards().stream().map(HobbyCardDto::getId).collect(Collectors.toList());
+    }
+
+    private static HobbySearchDto search(String query) {
+        HobbySearchDto search = new HobbySearchDto();
+        search.setQuery(query);
+        return search;
+    }
+
+    private static Hobby hobby(long id, String name, String slogan, String description, String price,
+                               CategoryNameEnum category, LocationEnum location) {
+        Hobby hobby = new Hobby();
+        hobby.setId(id);
+        hobby.setName(name);
+        hobby.setSlogan(slogan);
+        hobby.setDescription(description);
+        hobby.setPrice(new BigDecimal(price));
+        hobby.setCategory(new Category(category));
+        hobby.setLocation(new Location(location));
+        return hobby;
+    }
+}
@@ -3,15 +3,18 @@ package backend.hobbiebackend.service.impl;
 import backend.hobbiebackend.model.entities.Category;
 import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
 import backend.hobbiebackend.model.repostiory.CategoryRepository;
+import backend.hobbiebackend.model.repostiory.LocationRepository;
+import backend.hobbiebackend.model.repostiory.UserRoleRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.CategoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.*;
 
 class CategoryServiceTest {
     private CategoryService categoryServiceTest;
@@ -21,20 +24,31 @@ class CategoryServiceTest {
     @BeforeEach
     public void setUp() {
         mockCategoryRepository = mock(CategoryRepository.class);
-        categoryServiceTest = new CategoryServiceImpl(mockCategoryRepository);
+        categoryServiceTest = new CategoryServiceImpl(mockCategoryRepository, new ReferenceDataRegistry(
+                mockCategoryRepository, mock(LocationRepository.class), mock(UserRoleRepository.class)));
         category = new Category();
         category.setName(CategoryNameEnum.ACTIVE);
     }
 
     @Test
     void findByName_should_Work() {
-        Mockito.when(mockCategoryRepository.findByName(CategoryNameEnum.ACTIVE)).
-                thenReturn(Optional.of(category));
+        Mockito.when(mockCategoryRepository.findAll()).
+                thenReturn(List.of(category));
         Category byName = categoryServiceTest.findByName(CategoryNameEnum.ACTIVE);
 
         assertEquals(category.getName(), byName.getName());
     }
 
+    @Test
+    void findByName_should_read_categories_once() {
+        Mockito.when(mockCategoryRepository.findAll()).
+                thenReturn(List.of(category));
+        categoryServiceTest.findByName(CategoryNameEnum.ACTIVE);
+        categoryServiceTest.findByName(CategoryNameEnum.ACTIVE);
+
+        verify(mockCategoryRepository, times(1)).findAll();
+    }
+
     @Test
     void initCategories_should_Work() {
         categoryServiceTest.initCategories();
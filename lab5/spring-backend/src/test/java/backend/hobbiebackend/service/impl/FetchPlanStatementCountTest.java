@@ -0,0 +1,231 @@
+package backend.hobbiebackend.service.impl;
+
+import backend.hobbiebackend.cache.HobbySnapshotCache;
+import backend.hobbiebackend.cleanup.ImagePurgeOutbox;
+import backend.hobbiebackend.cleanup.UserDeletionWorker;
+import backend.hobbiebackend.feed.FeedVersions;
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.matching.HobbyMatchMaintainer;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
+import backend.hobbiebackend.model.entities.*;
+import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
+import backend.hobbiebackend.model.entities.enums.GenderEnum;
+import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.entities.enums.UserRoleEnum;
+import backend.hobbiebackend.model.repostiory.*;
+import backend.hobbiebackend.search.HobbySearchIndex;
+import backend.hobbiebackend.service.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the SQL statements each use case sends for a client with many matched and saved hobbies, so that a
+ * mapping which loads more than the use case needs shows up as a failing test.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class FetchPlanStatementCountTest {
+    private static final int HOBBIES = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private HobbyRepository hobbyRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AppClientRepository appClientRepository;
+    @Autowired
+    private BusinessOwnerRepository businessOwnerRepository;
+    @Autowired
+    private TestRepository testRepository;
+
+    private Statistics statistics;
+    private HobbyService hobbyService;
+    private UserService userService;
+    private TestService testService;
+    private long savedHobbyId;
+    private long unsavedHobbyId;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(new ModelMapper(), userRepository, appClientRepository,
+                businessOwnerRepository, mock(UserRoleService.class), mock(PasswordEncoder.class),
+                mock(UserDeletionWorker.class));
+        hobbyService = new HobbyServiceImpl(hobbyRepository, mock(CategoryService.class), userService,
+                mock(LocationService.class), mock(ImagePurgeOutbox.class), new HobbyMatchIndex(hobbyRepository),
+                mock(HobbyMatchMaintainer.class), mock(FeedVersions.class), mock(HobbySnapshotCache.class),
+                mock(HobbySearchIndex.class));
+        testService = new TestServiceImpl(testRepository, userService, mock(HobbyMatchMaintainer.class));
+
+        UserRoleEntity userRole = new UserRoleEntity();
+        userRole.setRole(UserRoleEnum.USER);
+        entityManager.persist(userRole);
+        UserRoleEntity businessRole = new UserRoleEntity();
+        businessRole.setRole(UserRoleEnum.BUSINESS_USER);
+        entityManager.persist(businessRole);
+        Location location = entityManager.persist(new Location(LocationEnum.ZURICH));
+        List<Category> categories = new ArrayList<>();
+        for (CategoryNameEnum name : CategoryNameEnum.values()) {
+            categories.add(entityManager.persist(new Category(name)));
+        }
+
+        BusinessOwner owner = new BusinessOwner("business", "business@mail.com", List.of(businessRole),
+                "secret", "business name", "address");
+        owner.setHobby_offers(new HashSet<>());
+        List<Hobby> hobbies = new ArrayList<>();
+        for (int i = 0; i <= HOBBIES; i++) {
+            Hobby hobby = new Hobby();
+            hobby.setName("hobby " + i);
+            hobby.setPrice(BigDecimal.TEN);
+            hobby.setCreator("business");
+            hobby.setLocation(location);
+            hobby.setCategory(categories.get(i % categories.size()));
+            hobbies.add(entityManager.persist(hobby));
+        }
+        owner.getHobby_offers().addAll(hobbies);
+        entityManager.persist(owner);
+
+        backend.hobbiebackend.model.entities.Test results = new backend.hobbiebackend.model.entities.Test();
+        results.setUsername("user");
+        results.setLocation(LocationEnum.ZURICH);
+        results.setCategoryOne(CategoryNameEnum.ACTIVE);
+        AppClient client = new AppClient("user", "user@mail.com", List.of(userRole), "secret", "Full Name",
+                GenderEnum.FEMALE);
+        client.setTestResults(entityManager.persist(results));
+        client.setHobby_matches(new HashSet<>(hobbies.subList(0, HOBBIES)));
+        client.setSaved_hobbies(new ArrayList<>(hobbies.subList(0, HOBBIES)));
+        entityManager.persist(client);
+        savedHobbyId = hobbies.get(0).getId();
+        unsavedHobbyId = hobbies.get(HOBBIES).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void isHobbySaved_should_use_one_statement() {
+        assertTrue(hobbyService.isHobbySaved(savedHobbyId, "user"));
+        assertStatements(1);
+    }
+
+    @Test
+    void saveHobbyForClient_should_not_load_the_client() {
+        assertTrue(hobbyService.saveHobbyForClient(unsavedHobbyId, "user"));
+        assertStatements(2);
+    }
+
+    @Test
+    void removeHobbyForClient_should_use_one_statement() {
+        assertTrue(hobbyService.removeHobbyForClient(savedHobbyId, "user"));
+        assertStatements(1);
+    }
+
+    @Test
+    void login_should_load_only_the_user_and_roles() {
+        UserEntity user = userService.findUserByUsername("user");
+        assertEquals(UserRoleEnum.USER, user.getRoles().get(0).getRole());
+        assertStatements(1);
+    }
+
+    @Test
+    void userExists_should_not_load_users() {
+        assertTrue(userService.userExists("user", "user@mail.com"));
+        assertStatements(1);
+    }
+
+    @Test
+    void userExists_should_see_deleted_users() {
+        userRepository.markDeleted(userRepository.findByUsername("user").orElseThrow().getId());
+        statistics.clear();
+        assertTrue(userService.userExists("user", "other@mail.com"));
+        assertTrue(userService.userExists("other", "user@mail.com"));
+        assertFalse(userService.userExists("other", "other@mail.com"));
+        assertStatements(3);
+    }
+
+    @Test
+    void hobbyMatches_should_use_one_statement_per_page() {
+        HobbyCardPageDto first = hobbyService.getAllHobbieMatchesForClient("user", null, 20);
+        assertEquals(20, first.getCards().size());
+        HobbyCardPageDto second = hobbyService.getAllHobbieMatchesForClient("user", first.getNextCursor(), 20);
+        assertEquals(HOBBIES - 20, second.getCards().size());
+        assertNull(second.getNextCursor());
+        assertStatements(2);
+    }
+
+    @Test
+    void savedHobbies_should_use_one_statement() {
+        HobbyCardPageDto saved = hobbyService.findSavedHobbies("user", null, 100);
+        assertEquals(HOBBIES, saved.getCards().size());
+        assertEquals(CategoryNameEnum.values()[0], saved.getCards().get(HOBBIES - 1).getCategory());
+        assertStatements(1);
+    }
+
+    @Test
+    void hobbyDetails_should_use_one_statement() {
+        Hobby hobby = hobbyService.findHobbieById(savedHobbyId);
+        hobby.getCategory().getName();
+        hobby.getLocation().getName();
+        assertStatements(1);
+    }
+
+    @Test
+    void clientDetails_should_not_load_hobbies_one_by_one() {
+        AppClient client = userService.findAppClientDetailsByUsername("user");
+        assertEquals(HOBBIES, client.getHobby_matches().size());
+        assertEquals(HOBBIES, client.getSaved_hobbies().size());
+        assertStatements(2);
+    }
+
+    @Test
+    void businessHobbies_should_use_one_statement() {
+        HobbyCardPageDto hobbies = hobbyService.getAllHobbiesForBusiness("business", null, 100);
+        assertEquals(HOBBIES + 1, hobbies.getCards().size());
+        assertEquals(unsavedHobbyId, hobbies.getCards().get(0).getId());
+        assertStatements(1);
+    }
+
+    @Test
+    void saveTestResults_should_not_load_the_client() {
+        backend.hobbiebackend.model.entities.Test results = new backend.hobbiebackend.model.entities.Test();
+        results.setUsername("user");
+        results.setLocation(LocationEnum.ZURICH);
+        results.setCategoryOne(CategoryNameEnum.FUN);
+        testService.saveTestResults(results);
+        entityManager.flush();
+        // client id, test results id, merge and update
+        assertStatements(4);
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(),
+                () -> "Unexpected statements: " + String.join("\n", statistics.getQueries()));
+    }
+}
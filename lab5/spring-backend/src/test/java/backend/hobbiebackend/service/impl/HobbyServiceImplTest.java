@@ -1,33 +1,50 @@
 package backend.hobbiebackend.service.impl;
 
+import backend.hobbiebackend.cache.HobbySnapshotCache;
+import backend.hobbiebackend.cleanup.ImagePurgeOutbox;
+import backend.hobbiebackend.feed.FeedVersions;
 import backend.hobbiebackend.handler.NotFoundException;
+import backend.hobbiebackend.matching.HobbyMatchIndex;
+import backend.hobbiebackend.matching.HobbyMatchMaintainer;
+import backend.hobbiebackend.model.dto.HobbyCardDto;
+import backend.hobbiebackend.model.dto.HobbyCardPageDto;
 import backend.hobbiebackend.model.dto.HobbyInfoDto;
+import backend.hobbiebackend.model.dto.HobbyInfoUpdateDto;
+import backend.hobbiebackend.model.dto.VersionDto;
 import backend.hobbiebackend.model.entities.*;
 import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
 import backend.hobbiebackend.model.entities.enums.LocationEnum;
 import backend.hobbiebackend.model.repostiory.CategoryRepository;
 import backend.hobbiebackend.model.repostiory.HobbyRepository;
+import backend.hobbiebackend.search.HobbySearchIndex;
 import backend.hobbiebackend.service.*;
-import com.cloudinary.Cloudinary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class HobbyServiceImplTest {
     private HobbyRepository mockHobbyRepository;
+    private UserService userServiceTest;
+    private HobbyMatchMaintainer hobbyMatchMaintainer;
+    private ImagePurgeOutbox imagePurgeOutbox;
+    private FeedVersions feedVersions;
+    private HobbySearchIndex hobbySearchIndex;
     private NotificationService notificationService;
     private HobbyService hobbyServiceToTest;
-    private AppClient appClient;
     private Hobby hobby;
 
     @BeforeEach
@@ -37,12 +54,17 @@ class HobbyServiceImplTest {
         CategoryService categoryServiceTest = mock(CategoryService.class);
         LocationService locationServiceTest = mock(LocationService.class);
         mockCategoryRepository = mock(CategoryRepository.class);
-        appClient = new AppClient();
-        Cloudinary cloudinary = mock(Cloudinary.class);
-        UserService userServiceTest = mock(UserService.class);
+        imagePurgeOutbox = mock(ImagePurgeOutbox.class);
+        userServiceTest = mock(UserService.class);
+        hobbyMatchMaintainer = mock(HobbyMatchMaintainer.class);
+        feedVersions = mock(FeedVersions.class);
+        hobbySearchIndex = mock(HobbySearchIndex.class);
 
         hobbyServiceToTest = new HobbyServiceImpl
-                (mockHobbyRepository, categoryServiceTest, userServiceTest, locationServiceTest, cloudinary);
+                (mockHobbyRepository, categoryServiceTest, userServiceTest, locationServiceTest, imagePurgeOutbox,
+                        new HobbyMatchIndex(mockHobbyRepository), hobbyMatchMaintainer, feedVersions,
+                        new HobbySnapshotCache(mockHobbyRepository, new ObjectMapper().findAndRegisterModules(),
+                                new SimpleMeterRegistry(), 1 << 20, 600), hobbySearchIndex);
 
         // prepare hobby data
         hobby = new Hobby();
@@ -87,8 +109,8 @@ class HobbyServiceImplTest {
                 thenReturn(location);
         when(mockHobbyRepository.findById(1L)).
                 thenReturn(Optional.of(hobby));
-        when(userServiceTest.findAppClientByUsername("username")).
-                thenReturn(appClient);
+        when(mockHobbyRepository.findWithReferencesById(1L)).
+                thenReturn(Optional.of(hobby));
 
     }
 
@@ -102,38 +124,158 @@ class HobbyServiceImplTest {
         );
     }
 
+    @Test
+    void deleteHobby_should_delete_only_references() throws Exception {
+        assertTrue(hobbyServiceToTest.deleteHobby(1L));
+        verify(mockHobbyRepository).deleteOfferReference(1L);
+        verify(mockHobbyRepository).deleteSavedReferences(1L);
+        verify(feedVersions).hobbyChanged(1L, "businessOwner");
+        verify(hobbyMatchMaintainer).hobbyDeleted(1L);
+        verify(hobbySearchIndex).hobbyDeleted(1L);
+        verify(mockHobbyRepository).delete(hobby);
+        verify(imagePurgeOutbox).enqueue("0", "1", "2", "3");
+        verifyNoInteractions(userServiceTest);
+    }
+
+    @Test
+    void patchHobby_should_change_only_given_fields_and_replaced_images() {
+        HobbyInfoUpdateDto changes = new HobbyInfoUpdateDto();
+        changes.setSlogan("new slogan");
+        changes.setPrice(new BigDecimal("100.00"));
+        changes.setCategory(CategoryNameEnum.ACTIVE);
+        changes.setProfileImg_id("new-0");
+        changes.setGalleryImg1_id("1");
+
+        Hobby patched = hobbyServiceToTest.patchHobby(1L, changes);
+
+        assertEquals("new slogan", patched.getSlogan());
+        assertEquals(new BigDecimal("100"), patched.getPrice());
+        assertEquals("new-0", patched.getProfileImg_id());
+        assertEquals("description", patched.getDescription());
+        verify(imagePurgeOutbox).enqueue("0");
+        verifyNoMoreInteractions(imagePurgeOutbox);
+        verifyNoInteractions(hobbyMatchMaintainer);
+        verify(feedVersions).hobbyChanged(1L, "businessOwner");
+    }
+
+    @Test
+    void patchHobby_should_keep_feed_version_if_no_card_field_changed() {
+        HobbyInfoUpdateDto changes = new HobbyInfoUpdateDto();
+        changes.setDescription("new description");
+        changes.setSlogan("slogan");
+
+        hobbyServiceToTest.patchHobby(1L, changes);
+
+        verifyNoInteractions(feedVersions);
+        verify(hobbySearchIndex).hobbyChanged(hobby);
+    }
+
+    @Test
+    void patchHobby_should_not_reindex_if_no_searchable_field_changed() {
+        HobbyInfoUpdateDto changes = new HobbyInfoUpdateDto();
+        changes.setContactInfo("new contact info");
+
+        hobbyServiceToTest.patchHobby(1L, changes);
+
+        verifyNoInteractions(hobbySearchIndex);
+    }
+
+    @Test
+    void createHobby_should_link_owner_without_loading_it() {
+        when(userServiceTest.findBusinessIdByUsername("businessOwner")).thenReturn(2L);
+        hobbyServiceToTest.createHobby(hobby);
+        verify(mockHobbyRepository).save(hobby);
+        verify(mockHobbyRepository).insertOfferLink(2L, 1L);
+        verify(userServiceTest, never()).findBusinessByUsername(anyString());
+    }
+
     @Test
     void findHobbyById_should_Work() {
         Assertions.assertEquals(hobby, hobbyServiceToTest.findHobbieById(1L));
     }
 
+    @Test
+    void findHobbySnapshot_should_load_until_hobby_changes() {
+        assertEquals("slogan", hobbyServiceToTest.findHobbySnapshot(1L).getSlogan());
+        assertEquals(CategoryNameEnum.ACTIVE, hobbyServiceToTest.findHobbySnapshot(1L).getCategory().getName());
+        verify(mockHobbyRepository, times(1)).findWithReferencesById(1L);
+
+        HobbyInfoUpdateDto changes = new HobbyInfoUpdateDto();
+        changes.setSlogan("new slogan");
+        hobbyServiceToTest.patchHobby(1L, changes);
+
+        assertEquals("new slogan", hobbyServiceToTest.findHobbySnapshot(1L).getSlogan());
+    }
+
+    @Test
+    void findHobbyVersion_should_not_load_hobby() {
+        hobby.setVersion(3);
+        when(mockHobbyRepository.findVersionById(1L)).thenReturn(Optional.of(new VersionDto(3, null)));
+
+        assertEquals(3, hobbyServiceToTest.findHobbyVersion(1L).getVersion());
+        verify(mockHobbyRepository, never()).findWithReferencesById(1L);
+
+        hobbyServiceToTest.findHobbySnapshot(1L);
+        assertEquals(3, hobbyServiceToTest.findHobbyVersion(1L).getVersion());
+        verify(mockHobbyRepository, times(1)).findVersionById(1L);
+        Assertions.assertThrows(NotFoundException.class, () -> hobbyServiceToTest.findHobbyVersion(2L));
+    }
+
+    @Test
+    void findHobbySnapshot_should_throw_for_missing_hobby() {
+        Assertions.assertThrows(NotFoundException.class, () -> hobbyServiceToTest.findHobbySnapshot(2L));
+    }
+
     @Test
     void saveHobbyForClient_should_work() {
-        appClient.setSaved_hobbies(new ArrayList<>());
-        hobbyServiceToTest.saveHobbyForClient(hobby, "username");
-        assertEquals(1, appClient.getSaved_hobbies().size());
+        when(mockHobbyRepository.insertSavedByClient("username", 1L)).thenReturn(1);
+        assertTrue(hobbyServiceToTest.saveHobbyForClient(1L, "username"));
+        verify(mockHobbyRepository).insertSavedByClient("username", 1L);
+        verify(feedVersions).userChanged("username");
+        verifyNoInteractions(userServiceTest);
+    }
+
+    @Test
+    void saveHobbyForClient_should_not_save_twice() {
+        when(mockHobbyRepository.countSavedByClient("username", 1L)).thenReturn(1L);
+        assertFalse(hobbyServiceToTest.saveHobbyForClient(1L, "username"));
+        verify(mockHobbyRepository, never()).insertSavedByClient(anyString(), anyLong());
+        verifyNoInteractions(feedVersions);
     }
 
     @Test
     void removeHobbyForClient_should_work() {
-        List<Hobby> saved = new ArrayList<>();
-        saved.add(hobby);
-        appClient.setSaved_hobbies(saved);
-        hobbyServiceToTest.removeHobbyForClient(hobby, "username");
-        assertEquals(0, appClient.getSaved_hobbies().size());
+        assertTrue(hobbyServiceToTest.removeHobbyForClient(1L, "username"));
+        verify(mockHobbyRepository).deleteSavedByClient("username", 1L);
+        verifyNoInteractions(userServiceTest);
     }
 
     @Test
     void isHobbySaved_should_work() {
-        appClient.setSaved_hobbies(new ArrayList<>());
-        hobbyServiceToTest.saveHobbyForClient(hobby, "username");
+        when(mockHobbyRepository.countSavedByClient("username", 1L)).thenReturn(1L);
         assertTrue(hobbyServiceToTest.isHobbySaved(1L, "username"));
+        verify(mockHobbyRepository, never()).findById(1L);
+        verifyNoInteractions(userServiceTest);
     }
 
     @Test
-    void findSavedHobbies_should_work() {
-        appClient.setSaved_hobbies(new ArrayList<>());
-        hobbyServiceToTest.saveHobbyForClient(hobby, "username");
-        assertEquals(1, hobbyServiceToTest.findSavedHobbies(appClient).size());
+    void findSavedHobbies_should_return_cursor_only_if_more_cards_exist() {
+        List<HobbyCardDto> cards = List.of(card(9L), card(7L), card(4L));
+        when(mockHobbyRepository.findSavedCardsOfClient("username", Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(cards);
+        when(mockHobbyRepository.findSavedCardsOfClient("username", 7L, PageRequest.of(0, 3)))
+                .thenReturn(cards.subList(2, 3));
+
+        HobbyCardPageDto first = hobbyServiceToTest.findSavedHobbies("username", null, 2);
+        assertEquals(2, first.getCards().size());
+        assertEquals(7L, first.getNextCursor());
+
+        HobbyCardPageDto last = hobbyServiceToTest.findSavedHobbies("username", first.getNextCursor(), 2);
+        assertEquals(1, last.getCards().size());
+        assertNull(last.getNextCursor());
+    }
+
+    private static HobbyCardDto card(long id) {
+        return new HobbyCardDto(id, "hobby", null, BigDecimal.ONE, null, CategoryNameEnum.ACTIVE, LocationEnum.ZURICH);
     }
 }
\ No newline at end of file
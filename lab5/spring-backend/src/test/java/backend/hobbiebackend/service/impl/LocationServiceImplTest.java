@@ -3,14 +3,17 @@ package backend.hobbiebackend.service.impl;
 import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.entities.Location;
 import backend.hobbiebackend.model.entities.enums.LocationEnum;
+import backend.hobbiebackend.model.repostiory.CategoryRepository;
 import backend.hobbiebackend.model.repostiory.LocationRepository;
+import backend.hobbiebackend.model.repostiory.UserRoleRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.LocationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -23,15 +26,16 @@ class LocationServiceImplTest {
     @BeforeEach
     public void setUp() {
         mockLocationRepository = mock(LocationRepository.class);
-        locationServiceToTest = new LocationServiceImpl(mockLocationRepository);
+        locationServiceToTest = new LocationServiceImpl(mockLocationRepository, new ReferenceDataRegistry(
+                mock(CategoryRepository.class), mockLocationRepository, mock(UserRoleRepository.class)));
         location = new Location();
         location.setName(LocationEnum.ZURICH);
     }
 
     @Test
     void getLocationByName_should_work() {
-        Mockito.when(mockLocationRepository.findByName(LocationEnum.ZURICH)).
-                thenReturn(Optional.of(location));
+        Mockito.when(mockLocationRepository.findAll()).
+                thenReturn(List.of(location));
         Location locationByName = locationServiceToTest.getLocationByName(LocationEnum.ZURICH);
 
         assertEquals(location.getName(), locationByName.getName());
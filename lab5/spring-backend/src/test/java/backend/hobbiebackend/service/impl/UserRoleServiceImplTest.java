@@ -3,14 +3,17 @@ package backend.hobbiebackend.service.impl;
 import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.entities.UserRoleEntity;
 import backend.hobbiebackend.model.entities.enums.UserRoleEnum;
+import backend.hobbiebackend.model.repostiory.CategoryRepository;
+import backend.hobbiebackend.model.repostiory.LocationRepository;
 import backend.hobbiebackend.model.repostiory.UserRoleRepository;
+import backend.hobbiebackend.reference.ReferenceDataRegistry;
 import backend.hobbiebackend.service.UserRoleService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,7 +28,8 @@ class UserRoleServiceImplTest {
     @BeforeEach
     public void setUp() {
         mockUserRoleRepository = mock(UserRoleRepository.class);
-        mockUserRoleServiceToTest = new UserRoleServiceImpl(mockUserRoleRepository);
+        mockUserRoleServiceToTest = new UserRoleServiceImpl(mockUserRoleRepository, new ReferenceDataRegistry(
+                mock(CategoryRepository.class), mock(LocationRepository.class), mockUserRoleRepository));
         userRoleEntity = new UserRoleEntity();
         userRoleEntity.setRole(UserRoleEnum.USER);
         when(mockUserRoleRepository.save(any(UserRoleEntity.class)))
@@ -34,8 +38,8 @@ class UserRoleServiceImplTest {
 
     @Test
     void getUserRoleByEnumName_Should_Work() {
-        Mockito.when(mockUserRoleRepository.findByRole(UserRoleEnum.USER)).
-                thenReturn(Optional.of(userRoleEntity));
+        Mockito.when(mockUserRoleRepository.findAll()).
+                thenReturn(List.of(userRoleEntity));
         UserRoleEntity userRoleByEnumName = mockUserRoleServiceToTest.getUserRoleByEnumName(UserRoleEnum.USER);
 
         assertEquals(userRoleEntity.getRole(), userRoleByEnumName.getRole());
@@ -1,5 +1,6 @@
 package backend.hobbiebackend.service.impl;
 
+import backend.hobbiebackend.cleanup.UserDeletionWorker;
 import backend.hobbiebackend.handler.NotFoundException;
 import backend.hobbiebackend.model.dto.AppClientSignUpDto;
 import backend.hobbiebackend.model.dto.BusinessRegisterDto;
@@ -48,7 +49,7 @@ class UserServiceTest {
         UserRoleService mockUserRoleService = mock(UserRoleService.class);
         ModelMapper modelMapper = new ModelMapper();
         userServiceToTest = new UserServiceImpl(modelMapper, mockUserRepository, mockAppClientRepository,
-                mockBusinessOwnerRepository, mockUserRoleService, mockPasswordEncoder);
+                mockBusinessOwnerRepository, mockUserRoleService, mockPasswordEncoder, mock(UserDeletionWorker.class));
 
         // prepare data client
         appClientSignUpDto = new AppClientSignUpDto();
@@ -156,7 +157,7 @@ class UserServiceTest {
 
     @Test
     void findBusinessOwnerById_should_work() {
-        when(mockBusinessOwnerRepository.findById(2L)).
+        when(mockBusinessOwnerRepository.findDetailsById(2L)).
                 thenReturn(Optional.of(businessOwner));
         Assertions.assertEquals(businessOwner, userServiceToTest.findBusinessOwnerById(2L));
     }
@@ -170,8 +171,8 @@ class UserServiceTest {
 
     @Test
     void userExists_should_work() {
-        when(mockUserRepository.findByUsername("user")).
-                thenReturn(Optional.of(userEntity));
+        when(mockUserRepository.existsIncludingDeleted("user", "email")).
+                thenReturn(true);
 
         Assertions.assertTrue(userServiceToTest.userExists("user", "email"));
     }
@@ -188,13 +189,16 @@ class UserServiceTest {
                 .thenReturn(Optional.of(userEntity));
         userServiceToTest.deleteUser(userEntity.getId());
 
-        Mockito.verify(mockUserRepository, times(1)).delete(userEntity);
+        Mockito.verify(mockUserRepository, times(1)).markDeleted(userEntity.getId());
+        Mockito.verify(mockUserRepository, never()).delete(userEntity);
     }
     
     @Test
     void findAppClientById_should_work() {
-        when(mockAppClientRepository.findById(1L)).
+        appClient.setSaved_hobbies(List.of());
+        when(mockAppClientRepository.findDetailsById(1L)).
                 thenReturn(Optional.of(appClient));
         Assertions.assertEquals(appClient, userServiceToTest.findAppClientById(1L));
+        verify(mockAppClientRepository, never()).findById(1L);
     }
 }
@@ -1,12 +1,16 @@
 package backend.hobbiebackend.web;
 
+import backend.hobbiebackend.cache.HobbySnapshot;
+import backend.hobbiebackend.cache.SerializedHobby;
 import backend.hobbiebackend.model.dto.HobbyInfoDto;
 import backend.hobbiebackend.model.dto.HobbyInfoUpdateDto;
+import backend.hobbiebackend.model.dto.VersionDto;
 import backend.hobbiebackend.model.entities.*;
 import backend.hobbiebackend.model.entities.enums.CategoryNameEnum;
 import backend.hobbiebackend.model.entities.enums.LocationEnum;
 import backend.hobbiebackend.service.HobbyService;
 import backend.hobbiebackend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MvcResult;
@@ -30,10 +35,13 @@ import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "hobbie.search.index-dir=")
 @AutoConfigureMockMvc
 public class HobbyControllerTest extends AbstractTest {
     @Autowired
@@ -150,16 +158,49 @@ public class HobbyControllerTest extends AbstractTest {
     public void hobby_details_should_work() throws Exception {
         String uri = "/hobbies/1";
         Long id = 1L;
+        when(service.findHobbyVersion(id)).thenReturn(new VersionDto(hobby.getVersion(), hobby.getUpdatedAt()));
+        when(service.findSerializedHobby(id)).thenReturn(new SerializedHobby(new HobbySnapshot(hobby), new ObjectMapper()));
         String inputJson = super.mapToJson(id);
         MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.get(uri)
                 .contentType(MediaType.APPLICATION_JSON_VALUE).content(inputJson)).andReturn();
 
-        when(service.findHobbieById(id)).thenReturn(hobby);
-
         int status = mvcResult.getResponse().getStatus();
         assertEquals(200, status);
     }
 
+    @Test
+    public void hobby_details_should_have_etag_per_content_coding() throws Exception {
+        String uri = "/api/v1/hobbies/1";
+        hobby.setDescription("a long description ".repeat(20));
+        SerializedHobby serialized = new SerializedHobby(new HobbySnapshot(hobby), new ObjectMapper());
+        when(service.findHobbyVersion(1L)).thenReturn(new VersionDto(hobby.getVersion(), hobby.getUpdatedAt()));
+        when(service.findSerializedHobby(1L)).thenReturn(serialized);
+
+        MvcResult identity = mvc.perform(MockMvcRequestBuilders.get(uri)).andReturn();
+        assertEquals(200, identity.getResponse().getStatus());
+        assertEquals(serialized.getLength(false), identity.getResponse().getContentAsByteArray().length);
+        MvcResult gzip = mvc.perform(MockMvcRequestBuilders.get(uri)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn();
+        assertEquals(200, gzip.getResponse().getStatus());
+        assertEquals(serialized.getLength(true), gzip.getResponse().getContentAsByteArray().length);
+
+        String etag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("gzip", gzip.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(etag.endsWith("-gzip\""));
+        assertNotEquals(identity.getResponse().getHeader(HttpHeaders.ETAG), etag);
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, identity.getResponse().getHeader(HttpHeaders.VARY));
+
+        MvcResult notModified = mvc.perform(MockMvcRequestBuilders.get(uri)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(304, notModified.getResponse().getStatus());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, notModified.getResponse().getHeader(HttpHeaders.VARY));
+        verify(service, times(2)).findSerializedHobby(1L);
+
+        MvcResult otherCoding = mvc.perform(MockMvcRequestBuilders.get(uri)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(200, otherCoding.getResponse().getStatus());
+    }
+
     @Test
     public void delete_hobby_should_work() throws Exception {
         String uri = "/hobbies/1";
@@ -21,7 +21,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "hobbie.search.index-dir=")
 @AutoConfigureMockMvc
 public class TestControllerTest extends AbstractTest {
     @Autowired
@@ -36,7 +36,7 @@ import java.util.List;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "hobbie.search.index-dir=")
 @AutoConfigureMockMvc
 class UserControllerTest extends AbstractTest {
     @Autowired